@@ -0,0 +1,83 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.Application;
+import akross.eclipsehotel.service.impl.ReservationEventLog;
+import akross.eclipsehotel.service.impl.RoomAvailabilityIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Boots the application, without a web server unless asked for, on a private H2 database and seeds it with
+ * one customer per room and {@code reservations} non-overlapping reservations spread evenly
+ * over the rooms. Each room gets a 2-night stay every 3 days; half of the periods lie in
+ * the past (FINISHED), the period covering today is IN_USE and the rest are SCHEDULED.
+ */
+public final class BenchmarkData {
+
+    public static final int STAY_STEP_DAYS = 3;
+    public static final int STAY_NIGHTS = 2;
+
+    private BenchmarkData() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(webApplicationType)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.jpa.open-in-view=false",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    public static LocalDate firstCheckin(int rooms, int reservations) {
+        return LocalDate.now().minusDays((long) periodsPerRoom(rooms, reservations) * STAY_STEP_DAYS / 2);
+    }
+
+    public static int periodsPerRoom(int rooms, int reservations) {
+        return reservations / rooms;
+    }
+
+    public static LocalDate checkinOf(int rooms, int reservations, int period) {
+        return firstCheckin(rooms, reservations).plusDays((long) period * STAY_STEP_DAYS);
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int rooms, int reservations) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        LocalDate base = firstCheckin(rooms, reservations);
+
+        // Seeding values are generated here, never user input, so they are inlined for H2's type inference.
+        jdbcTemplate.execute(("insert into tb_customers (customer_id, name, email, phone, created_at, version) " +
+                "select x, 'Customer ' || x, 'customer' || x || '@benchmark.test', '000', current_date, 0 " +
+                "from system_range(1, %d)").formatted(rooms));
+        jdbcTemplate.execute(("insert into tb_rooms (room_id, number, type, price, version) " +
+                "select x, 'R' || x, 'DOUBLE', 150.00, 0 from system_range(1, %d)").formatted(rooms));
+        String checkin = "dateadd('DAY', (x / %1$d) * %2$d, date '%3$s')";
+        String checkout = "dateadd('DAY', (x / %1$d) * %2$d + %4$d, date '%3$s')";
+        jdbcTemplate.execute(("insert into tb_reservations (id, customer_id, room_id, checkin, checkout, status, version) " +
+                "select x, 1 + mod(x, %1$d), 1 + mod(x, %1$d), " + checkin + ", " + checkout + ", " +
+                "case when " + checkout + " < current_date then 'FINISHED' " +
+                "when " + checkin + " > current_date then 'SCHEDULED' " +
+                "else 'IN_USE' end, 0 " +
+                "from system_range(1, %5$d)").formatted(rooms, STAY_STEP_DAYS, base, STAY_NIGHTS, reservations));
+        // The pooled optimizer hands out the block of IDs below each sequence value, so leave room for it.
+        jdbcTemplate.execute("alter sequence tb_reservations_seq restart with " + (reservations + 100));
+        jdbcTemplate.execute("alter sequence tb_customers_seq restart with " + (rooms + 100));
+        jdbcTemplate.execute("alter sequence tb_rooms_seq restart with " + (rooms + 100));
+
+        context.getBean(RoomAvailabilityIndex.class).load();
+        // Logs an OPENED event for every seeded reservation and replays the log into the occupancy counters.
+        context.getBean(ReservationEventLog.class).load();
+    }
+}
@@ -0,0 +1,108 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.ReservationStatusService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Many threads cancel a handful of in-use reservations while one thread keeps putting them back to
+ * SCHEDULED and running the status transition over them, so cancellations and transitions race for
+ * the same rows. The re-arming UPDATE bypasses the event log, so the occupancy counters drift during
+ * the run; only throughput and the cancel outcomes are of interest here.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CancellationContentionBenchmark {
+
+    @Param("10000")
+    private int rooms;
+
+    @Param("1000000")
+    private int reservations;
+
+    @Param("16")
+    private int hotReservations;
+
+    private ConfigurableApplicationContext context;
+
+    private ReservationService reservationService;
+
+    private ReservationStatusService reservationStatusService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> hotIds;
+
+    private String rearm;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long canceled;
+
+        public long gaveUp;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seed(context, rooms, reservations);
+        reservationService = context.getBean(ReservationService.class);
+        reservationStatusService = context.getBean(ReservationStatusService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        hotIds = jdbcTemplate.queryForList("select id from tb_reservations where status = 'IN_USE' order by id limit ?",
+                Long.class, hotReservations);
+        rearm = "update tb_reservations set status = 'SCHEDULED', version = version + 1 where id in (" +
+                hotIds.stream().map(String::valueOf).collect(Collectors.joining(", ")) + ")";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("cancelWhileTransitioning")
+    @GroupThreads(7)
+    public void cancel(Outcomes outcomes) {
+        Long id = hotIds.get(ThreadLocalRandom.current().nextInt(hotIds.size()));
+        try {
+            reservationService.cancelReservation(id);
+            outcomes.canceled++;
+        } catch (BusinessException e) {
+            outcomes.gaveUp++;
+        }
+    }
+
+    @Benchmark
+    @Group("cancelWhileTransitioning")
+    @GroupThreads(1)
+    public int rearmAndTransition() {
+        jdbcTemplate.update(rearm);
+        return reservationStatusService.transitionStatuses(LocalDate.now());
+    }
+}
@@ -0,0 +1,81 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.dto.CustomerDTO;
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+    private Customer customer;
+
+    private Room room;
+
+    private Reservation reservation;
+
+    private ReservationDTO reservationDto;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setName("Customer 1");
+        customer.setEmail("customer1@benchmark.test");
+        customer.setPhone("000");
+        customer.setCreatedAt(LocalDate.now());
+
+        room = new Room();
+        room.setId(1L);
+        room.setNumber("R1");
+        room.setType(RoomType.DOUBLE);
+        room.setPrice(new BigDecimal("150.00"));
+
+        reservation = new Reservation();
+        reservation.setId(1L);
+        reservation.setCustomer(customer);
+        reservation.setRoom(room);
+        reservation.setCheckin(LocalDate.now());
+        reservation.setCheckout(LocalDate.now().plusDays(2));
+        reservation.setStatus(ReservationStatus.SCHEDULED);
+
+        reservationDto = new ReservationDTO(reservation);
+    }
+
+    @Benchmark
+    public ReservationDTO reservationToDto() {
+        return new ReservationDTO(reservation);
+    }
+
+    @Benchmark
+    public Reservation reservationDtoToModel() {
+        return reservationDto.toModel();
+    }
+
+    @Benchmark
+    public RoomDTO roomToDto() {
+        return new RoomDTO(room);
+    }
+
+    @Benchmark
+    public CustomerDTO customerToDto() {
+        return new CustomerDTO(customer);
+    }
+}
@@ -0,0 +1,104 @@
+package akross.eclipsehotel.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the running web application over HTTP with more concurrent clients than the platform
+ * thread pool has threads, once per execution mode. Throughput and the sampled latency
+ * percentiles (p0.99 in particular) of the two {@code virtualThreads} values are the comparison;
+ * virtual threads only take effect when the benchmark JVM is Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+public class HttpLoadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param("16")
+    private int tomcatThreads;
+
+    @Param("10")
+    private int poolSize;
+
+    @Param("1000")
+    private int rooms;
+
+    @Param("100000")
+    private int reservations;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private LocalDate firstCheckin;
+
+    private int periods;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + tomcatThreads,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "eclipse-hotel.scheduling.enabled=false");
+        BenchmarkData.seed(context, rooms, reservations);
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        firstCheckin = BenchmarkData.firstCheckin(rooms, reservations);
+        periods = BenchmarkData.periodsPerRoom(rooms, reservations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String roomById() throws IOException, InterruptedException {
+        return get("/rooms/" + (1 + ThreadLocalRandom.current().nextInt(rooms)));
+    }
+
+    @Benchmark
+    public String reservationsByCheckinWeek() throws IOException, InterruptedException {
+        LocalDate start = firstCheckin.plusDays(ThreadLocalRandom.current().nextInt(periods * BenchmarkData.STAY_STEP_DAYS));
+        return get("/reservations/by-date-range?start=" + start + "&end=" + start.plusDays(6) + "&limit=100");
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
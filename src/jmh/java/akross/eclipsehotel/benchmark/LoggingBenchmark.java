@@ -0,0 +1,127 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.config.LogSamplingFilter;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.RoomRepository;
+import akross.eclipsehotel.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.MDC;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking throughput under the two logging setups: {@code sync} is the former default of
+ * synchronous console logging at INFO with show-sql and format_sql on, {@code prod} is the
+ * prod profile. Stdout is redirected to a file so both pay for real I/O without flooding the
+ * JMH output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final int SAMPLE_RATE = 10;
+
+    @Param({"sync", "prod"})
+    private String logging;
+
+    @Param("1000")
+    private int rooms;
+
+    @Param("100000")
+    private int reservations;
+
+    private ConfigurableApplicationContext context;
+
+    private ReservationService reservationService;
+
+    private Customer customer;
+
+    private Room[] roomRefs;
+
+    private LocalDate freeFrom;
+
+    private PrintStream originalOut;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        originalOut = System.out;
+        System.setOut(openLogFile());
+        context = "prod".equals(logging)
+                ? BenchmarkData.start(WebApplicationType.NONE,
+                "spring.profiles.active=prod",
+                "logging.level.root=INFO",
+                "eclipse-hotel.logging.info-sample-rate=" + SAMPLE_RATE)
+                : BenchmarkData.start(WebApplicationType.NONE,
+                "logging.level.root=INFO",
+                "spring.jpa.show-sql=true",
+                "spring.jpa.properties.hibernate.format_sql=true");
+        BenchmarkData.seed(context, rooms, reservations);
+        reservationService = context.getBean(ReservationService.class);
+        customer = context.getBean(CustomerRepository.class).findById(1L).orElseThrow();
+        roomRefs = context.getBean(RoomRepository.class).findAll().toArray(Room[]::new);
+        freeFrom = BenchmarkData.checkinOf(rooms, reservations, BenchmarkData.periodsPerRoom(rooms, reservations) + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.out.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public Reservation openReservation() {
+        long next = sequence.getAndIncrement();
+        Room room = roomRefs[(int) (next % roomRefs.length)];
+        LocalDate checkin = freeFrom.plusDays(next / roomRefs.length);
+
+        Reservation reservation = new Reservation();
+        reservation.setCustomer(customer);
+        reservation.setRoom(room);
+        reservation.setCheckin(checkin);
+        reservation.setCheckout(checkin.plusDays(1));
+        reservation.setStatus(ReservationStatus.SCHEDULED);
+
+        // Stands in for LogSamplingFilter, which only runs for HTTP requests.
+        MDC.put(LogSamplingFilter.MDC_KEY, Boolean.toString(ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0));
+        try {
+            return reservationService.openReservation(reservation);
+        } finally {
+            MDC.remove(LogSamplingFilter.MDC_KEY);
+        }
+    }
+
+    private PrintStream openLogFile() throws IOException {
+        Path file = Path.of("build", "tmp", "jmh-logging-" + logging + ".log");
+        Files.createDirectories(file.getParent());
+        return new PrintStream(new FileOutputStream(file.toFile()), true);
+    }
+}
@@ -0,0 +1,87 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.config.PricingProperties;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.service.impl.RateCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices one stay with the rate calendar against pricing it night by night in BigDecimal,
+ * which is what clients did before the quote API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuoteBenchmark {
+
+    private static final BigDecimal SUITE = new BigDecimal("1.20");
+
+    private static final BigDecimal SUITE_HIGH_SEASON = new BigDecimal("1.50");
+
+    private static final BigDecimal WEEKLY = new BigDecimal("0.90");
+
+    @Param({"3", "14"})
+    public int nights;
+
+    private RateCalendar rateCalendar;
+
+    private BigDecimal price;
+
+    private long priceCents;
+
+    private LocalDate checkin;
+
+    private LocalDate checkout;
+
+    @Setup
+    public void setUp() {
+        rateCalendar = new RateCalendar(new PricingProperties(
+                730,
+                Map.of(RoomType.SUITE, 20),
+                List.of(new PricingProperties.Season("summer", "12-15", "02-28", 30, Set.of())),
+                List.of(new PricingProperties.LengthOfStayDiscount(7, 10))));
+        rateCalendar.rebuild();
+        price = new BigDecimal("150.00");
+        priceCents = RateCalendar.toCents(price);
+        checkin = LocalDate.now().plusDays(30);
+        checkout = checkin.plusDays(nights);
+    }
+
+    @Benchmark
+    public long rateCalendar() {
+        return rateCalendar.totalCents(RoomType.SUITE, priceCents, checkin, checkout);
+    }
+
+    @Benchmark
+    public BigDecimal perNightBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (LocalDate night = checkin; night.isBefore(checkout); night = night.plusDays(1)) {
+            total = total.add(price.multiply(isHighSeason(night) ? SUITE_HIGH_SEASON : SUITE));
+        }
+        if (nights >= 7) {
+            total = total.multiply(WEEKLY);
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean isHighSeason(LocalDate night) {
+        MonthDay day = MonthDay.from(night);
+        return !day.isBefore(MonthDay.of(12, 15)) || !day.isAfter(MonthDay.of(2, 28));
+    }
+}
@@ -0,0 +1,113 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.repository.ReservationRepository;
+import akross.eclipsehotel.repository.ReservationSearchCriteria;
+import akross.eclipsehotel.repository.ReservationSort;
+import akross.eclipsehotel.repository.ReservationSpecifications;
+import akross.eclipsehotel.service.impl.RoomAvailabilityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReservationQueryBenchmark {
+
+    private static final List<ReservationStatus> OCCUPIED = List.of(ReservationStatus.SCHEDULED, ReservationStatus.IN_USE);
+
+    @Param("10000")
+    private int rooms;
+
+    @Param("1000000")
+    private int reservations;
+
+    private ConfigurableApplicationContext context;
+
+    private ReservationRepository reservationRepository;
+
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private LocalDate occupiedCheckin;
+
+    private LocalDate freeCheckin;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seed(context, rooms, reservations);
+        reservationRepository = context.getBean(ReservationRepository.class);
+        roomAvailabilityIndex = context.getBean(RoomAvailabilityIndex.class);
+
+        int periods = BenchmarkData.periodsPerRoom(rooms, reservations);
+        occupiedCheckin = BenchmarkData.checkinOf(rooms, reservations, periods - 1);
+        freeCheckin = BenchmarkData.checkinOf(rooms, reservations, periods + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean overlapQueryWithConflict() {
+        return reservationRepository.existsByRoomIdAndStatusInAndCheckoutAfterAndCheckinBefore(
+                1L, OCCUPIED, occupiedCheckin, occupiedCheckin.plusDays(1));
+    }
+
+    @Benchmark
+    public boolean overlapQueryWithoutConflict() {
+        return reservationRepository.existsByRoomIdAndStatusInAndCheckoutAfterAndCheckinBefore(
+                1L, OCCUPIED, freeCheckin, freeCheckin.plusDays(1));
+    }
+
+    @Benchmark
+    public boolean availabilityIndexWithConflict() {
+        return roomAvailabilityIndex.isAvailable(1L, occupiedCheckin, occupiedCheckin.plusDays(1));
+    }
+
+    @Benchmark
+    public boolean availabilityIndexWithoutConflict() {
+        return roomAvailabilityIndex.isAvailable(1L, freeCheckin, freeCheckin.plusDays(1));
+    }
+
+    @Benchmark
+    public List<ReservationDTO> reservationsByCheckinWeek() {
+        return reservationRepository.findDtoByCheckinBetween(occupiedCheckin, occupiedCheckin.plusDays(7));
+    }
+
+    @Benchmark
+    public List<ReservationDTO> searchOpenByCustomerAndCheckinWeek() {
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria(1L, null, null, OCCUPIED,
+                occupiedCheckin, occupiedCheckin.plusDays(7), null, null, ReservationSort.CHECKIN, Sort.Direction.ASC);
+        return reservationRepository.findDtos(ReservationSpecifications.matching(criteria),
+                ReservationSort.CHECKIN, Sort.Direction.ASC, Limit.of(100));
+    }
+
+    @Benchmark
+    public List<Reservation> inUseAsEntities() {
+        return reservationRepository.findByStatus(ReservationStatus.IN_USE);
+    }
+
+    @Benchmark
+    public List<ReservationDTO> inUseAsProjection() {
+        return reservationRepository.findDtoByStatus(ReservationStatus.IN_USE);
+    }
+}
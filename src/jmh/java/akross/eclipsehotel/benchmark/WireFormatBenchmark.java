@@ -0,0 +1,125 @@
+package akross.eclipsehotel.benchmark;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.RoomType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes and reads lists of {@code size} reservations and rooms as JSON, CBOR and Smile with the
+ * mappers the application registers, and writes them gzipped as the server compresses them. The
+ * payload size of each format, plain and gzipped, is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<ReservationDTO>> RESERVATIONS = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param("10000")
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectMapper mapper;
+
+    private List<ReservationDTO> reservations;
+
+    private List<RoomDTO> rooms;
+
+    private byte[] reservationsPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkData.start();
+        mapper = switch (format) {
+            case "json" -> context.getBean(ObjectMapper.class);
+            case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+
+        LocalDate today = LocalDate.now();
+        RoomType[] types = RoomType.values();
+        ReservationStatus[] statuses = ReservationStatus.values();
+        reservations = new ArrayList<>(size);
+        rooms = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            LocalDate checkin = today.plusDays(i % 365);
+            reservations.add(new ReservationDTO((long) i, (long) (i % 1000 + 1), (long) (i % 500 + 1), checkin,
+                    checkin.plusDays(1 + i % 7), statuses[i % statuses.length], BigDecimal.valueOf(15000 + i % 90000, 2)));
+            rooms.add(new RoomDTO((long) i, "R" + i, types[i % types.length], BigDecimal.valueOf(9000 + i % 50000, 2)));
+        }
+
+        reservationsPayload = mapper.writeValueAsBytes(reservations);
+        byte[] roomsPayload = mapper.writeValueAsBytes(rooms);
+        System.out.printf("%n%s payload for %d records: reservations %d bytes (%d gzipped), rooms %d bytes (%d gzipped)%n",
+                format, size, reservationsPayload.length, gzip(reservationsPayload).length,
+                roomsPayload.length, gzip(roomsPayload).length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] writeReservations() throws IOException {
+        return mapper.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public byte[] writeReservationsGzipped() throws IOException {
+        return gzip(mapper.writeValueAsBytes(reservations));
+    }
+
+    @Benchmark
+    public byte[] writeRooms() throws IOException {
+        return mapper.writeValueAsBytes(rooms);
+    }
+
+    @Benchmark
+    public List<ReservationDTO> readReservations() throws IOException {
+        return mapper.readValue(reservationsPayload, RESERVATIONS);
+    }
+
+    private static byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.benchmark.BenchmarkData;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.RoomRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReservationServiceBenchmark {
+
+    @Param("10000")
+    private int rooms;
+
+    @Param("1000000")
+    private int reservations;
+
+    private ConfigurableApplicationContext context;
+
+    private ReservationServiceImpl reservationService;
+
+    private Customer customer;
+
+    private Room[] roomRefs;
+
+    private LocalDate freeFrom;
+
+    private LocalDate occupiedCheckin;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seed(context, rooms, reservations);
+        reservationService = context.getBean(ReservationServiceImpl.class);
+        customer = context.getBean(CustomerRepository.class).findById(1L).orElseThrow();
+        roomRefs = context.getBean(RoomRepository.class).findAll().toArray(Room[]::new);
+
+        int periods = BenchmarkData.periodsPerRoom(rooms, reservations);
+        freeFrom = BenchmarkData.checkinOf(rooms, reservations, periods + 1);
+        occupiedCheckin = BenchmarkData.checkinOf(rooms, reservations, periods - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Reservation openReservationWithoutConflict() {
+        long next = sequence.getAndIncrement();
+        Room room = roomRefs[(int) (next % roomRefs.length)];
+        LocalDate checkin = freeFrom.plusDays(next / roomRefs.length);
+        return reservationService.openReservation(newReservation(room, checkin, checkin.plusDays(1)));
+    }
+
+    @Benchmark
+    public Object openReservationWithConflict() {
+        // Room 1 holds the seeded period starting at occupiedCheckin.
+        Room room = roomRefs[0];
+        try {
+            return reservationService.openReservation(newReservation(room, occupiedCheckin, occupiedCheckin.plusDays(1)));
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ReservationStatus updateReservationStatus() {
+        Reservation reservation = newReservation(roomRefs[0], LocalDate.now(), LocalDate.now().plusDays(2));
+        reservationService.updateReservationStatus(reservation);
+        return reservation.getStatus();
+    }
+
+    private Reservation newReservation(Room room, LocalDate checkin, LocalDate checkout) {
+        Reservation reservation = new Reservation();
+        reservation.setCustomer(customer);
+        reservation.setRoom(room);
+        reservation.setCheckin(checkin);
+        reservation.setCheckout(checkout);
+        reservation.setStatus(ReservationStatus.SCHEDULED);
+        return reservation;
+    }
+}
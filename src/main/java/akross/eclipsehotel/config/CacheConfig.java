@@ -0,0 +1,49 @@
+package akross.eclipsehotel.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-process caches for the room and customer DTOs the API serves. They hold
+ * immutable records rather than JPA entities, so a cached value can be shared by any
+ * number of requests; bookings read their room and customer from them too. Puts and evictions are deferred
+ * until the surrounding transaction commits, so a rolled back update never evicts and a
+ * concurrent reader cannot re-cache the old row between the eviction and the commit.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ROOMS = "rooms";
+
+    public static final String ROOM_LISTS = "roomLists";
+
+    public static final String CUSTOMERS = "customers";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${eclipse-hotel.cache.rooms.maximum-size:1000}") long roomsMaximumSize,
+                                     @Value("${eclipse-hotel.cache.customers.maximum-size:10000}") long customersMaximumSize,
+                                     @Value("${eclipse-hotel.cache.time-to-live:10m}") Duration timeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ROOMS, newCache(roomsMaximumSize, timeToLive));
+        cacheManager.registerCustomCache(ROOM_LISTS, newCache(1, timeToLive));
+        cacheManager.registerCustomCache(CUSTOMERS, newCache(customersMaximumSize, timeToLive));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> newCache(long maximumSize, Duration timeToLive) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+}
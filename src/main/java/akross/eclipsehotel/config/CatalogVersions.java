@@ -0,0 +1,145 @@
+package akross.eclipsehotel.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Version counters behind the ETags of the endpoints the front desks poll: the room list and each
+ * room, each customer and the reservations in use. Services bump them once a change commits, so a
+ * poll whose If-None-Match still matches is answered with 304 before any query runs or any JSON is
+ * written. Room and customer IDs hash onto a fixed number of counters, so a change may also renew
+ * the tag of another ID but never leaves a stale one. The counters belong to this instance and the
+ * tags carry its start time, so a restart invalidates them. Changes made by other instances, by the
+ * {@code --import-*} command line or straight in SQL never bump them, so tags are only handed out
+ * once {@code eclipse-hotel.http-cache.etags} declares a single instance that sees every write. With
+ * a read replica configured no tag is handed out for {@code max-lag} after a change, since the data
+ * may come from a replica that has not caught up with it yet.
+ */
+@Component
+public class CatalogVersions {
+
+    private static final int STRIPES = 1024;
+
+    private final String prefix = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final Versions rooms = new Versions(STRIPES);
+
+    private final Versions customers = new Versions(STRIPES);
+
+    private final Versions inUseReservations = new Versions(1);
+
+    private final boolean enabled;
+
+    private final long settleNanos;
+
+    private final CacheControl cacheControl;
+
+    public CatalogVersions(@Value("${eclipse-hotel.http-cache.etags:false}") boolean enabled,
+                           @Value("${eclipse-hotel.datasource.replica.url:}") String replicaUrl,
+                           @Value("${eclipse-hotel.datasource.replica.max-lag:5s}") Duration replicaMaxLag,
+                           @Value("${eclipse-hotel.http-cache.max-age:0s}") Duration maxAge) {
+        this.enabled = enabled;
+        this.settleNanos = StringUtils.hasText(replicaUrl) ? replicaMaxLag.toNanos() : 0;
+        this.cacheControl = maxAge.isZero()
+                ? CacheControl.noCache().cachePrivate()
+                : CacheControl.maxAge(maxAge).cachePrivate().mustRevalidate();
+    }
+
+    public void roomChanged(Long id) {
+        rooms.changed(id);
+    }
+
+    // Rooms were only added, so the tags of existing rooms still hold.
+    public void roomsAdded() {
+        rooms.changed(null);
+    }
+
+    public void customerChanged(Long id) {
+        customers.changed(id);
+    }
+
+    public void inUseReservationsChanged() {
+        inUseReservations.changed(null);
+    }
+
+    public String roomList() {
+        return tag(rooms, null);
+    }
+
+    public String room(Long id) {
+        return tag(rooms, id);
+    }
+
+    public String customer(Long id) {
+        return tag(customers, id);
+    }
+
+    public String inUseReservations() {
+        return tag(inUseReservations, null);
+    }
+
+    /**
+     * Answers 304 when the request already holds {@code etag}, otherwise computes the body. The tag
+     * must be read before the body so it never stands for data older than it. Tags are weak because
+     * the same version is served as JSON, CBOR or Smile, depending on Accept.
+     */
+    public <T> ResponseEntity<T> conditionalGet(WebRequest request, String etag, Supplier<T> body) {
+        if (etag != null && request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response.body(body.get());
+    }
+
+    // The version is read before changedAt, which changed() writes first, so a version always comes with its change time.
+    private String tag(Versions versions, Long id) {
+        if (!enabled) {
+            return null;
+        }
+        long version = id == null ? versions.all.get() : versions.byId.get(versions.stripe(id));
+        if (settleNanos > 0 && System.nanoTime() - versions.changedAt < settleNanos) {
+            return null;
+        }
+        return "W/\"" + prefix + "-" + version + "\"";
+    }
+
+    private static final class Versions {
+
+        private final AtomicLong all = new AtomicLong();
+
+        private final AtomicLongArray byId;
+
+        private volatile long changedAt = System.nanoTime() - Long.MAX_VALUE / 2;
+
+        Versions(int stripes) {
+            this.byId = new AtomicLongArray(stripes);
+        }
+
+        void changed(Long id) {
+            changedAt = System.nanoTime();
+            if (id != null) {
+                byId.incrementAndGet(stripe(id));
+            }
+            all.incrementAndGet();
+        }
+
+        int stripe(Long id) {
+            return Math.floorMod(Long.hashCode(id * 0x9E3779B97F4A7C15L), byId.length());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package akross.eclipsehotel.config;
+
+import akross.eclipsehotel.dto.ImportReportDTO;
+import akross.eclipsehotel.service.ImportFormat;
+import akross.eclipsehotel.service.ImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Imports the files given as {@code --import-rooms=<file>} and {@code --import-customers=<file>}
+ * at startup, rooms first. The format comes from the file extension. Without a web server
+ * the application exits once the files are imported.
+ */
+@Component
+public class ImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportRunner.class);
+
+    private final ImportService importService;
+
+    private final ConfigurableApplicationContext context;
+
+    private volatile boolean imported;
+
+    public ImportRunner(ImportService importService, ConfigurableApplicationContext context) {
+        this.importService = importService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> rooms = args.getOptionValues("import-rooms");
+        List<String> customers = args.getOptionValues("import-customers");
+        if (rooms == null && customers == null) {
+            return;
+        }
+        if (rooms != null) {
+            for (String file : rooms) {
+                importFile(file, importService::importRooms);
+            }
+        }
+        if (customers != null) {
+            for (String file : customers) {
+                importFile(file, importService::importCustomers);
+            }
+        }
+        imported = true;
+    }
+
+    // Runs after every runner, so closing the context here does not pull it from under the others.
+    @EventListener(ApplicationReadyEvent.class)
+    public void exitAfterImport() {
+        if (imported && !(context instanceof WebServerApplicationContext)) {
+            logger.info("Import finished without a web server; shutting down.");
+            SpringApplication.exit(context);
+        }
+    }
+
+    private void importFile(String file, BiFunction<InputStream, ImportFormat, ImportReportDTO> importer) throws IOException {
+        logger.info("Importing {}.", file);
+        try (InputStream input = Files.newInputStream(Path.of(file))) {
+            ImportReportDTO report = importer.apply(input, ImportFormat.ofFileName(file));
+            logger.info("Imported {}: {} read, {} imported, {} rejected{}.", file, report.read(), report.imported(),
+                    report.rejected(), report.completed() ? "" : ", stopped early");
+            report.rejects().forEach(reject ->
+                    logger.warn("Rejected record {} of {} ({}): {}", reject.record(), file, reject.key(), reject.reason()));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package akross.eclipsehotel.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN at startup for the query shapes the repositories issue against tb_reservations
+ * and warns when the database does not plan to use the index designed for them. Works with the
+ * plan output of H2 and PostgreSQL; other databases are skipped. Planners rightly prefer a
+ * sequential scan on a small table, so the check only runs once the table holds at least
+ * {@code eclipse-hotel.index-check.min-rows} reservations.
+ */
+@Component
+@ConditionalOnProperty(name = "eclipse-hotel.index-check.enabled", matchIfMissing = true)
+public class IndexPlanVerifier implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexPlanVerifier.class);
+
+    private static final Map<String, String> EXPECTED_PLANS = Map.of(
+            "select id from tb_reservations where room_id = 1 and status in ('SCHEDULED', 'IN_USE') " +
+                    "and checkout > date '2000-01-01' and checkin < date '2000-01-02'",
+            "idx_reservations_room_status_period",
+            "select id from tb_reservations where status = 'IN_USE'",
+            "idx_reservations_status_checkin",
+            "select id from tb_reservations where customer_id = 1 and status in ('IN_USE', 'FINISHED')",
+            "idx_reservations_customer_status",
+            "select id from tb_reservations where checkin between date '2000-01-01' and date '2000-01-31'",
+            "idx_reservations_checkin",
+            "select id from tb_reservations where checkout between date '2000-01-01' and date '2000-01-31'",
+            "idx_reservations_checkout"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int minRows;
+
+    public IndexPlanVerifier(JdbcTemplate jdbcTemplate,
+                             @Value("${eclipse-hotel.index-check.min-rows:10000}") int minRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minRows = minRows;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(database) && !"PostgreSQL".equals(database)) {
+            logger.info("Skipping index plan verification for unsupported database {}.", database);
+            return;
+        }
+        // Counts no further than minRows, so the check stays cheap on a large table.
+        Integer rows = jdbcTemplate.queryForObject(
+                "select count(*) from (select 1 from tb_reservations fetch first ? rows only) t", Integer.class, minRows);
+        if (rows == null || rows < minRows) {
+            logger.info("Skipping index plan verification: tb_reservations has fewer than {} rows.", minRows);
+            return;
+        }
+
+        int missing = 0;
+        for (Map.Entry<String, String> expected : EXPECTED_PLANS.entrySet()) {
+            List<String> plan = jdbcTemplate.queryForList("explain " + expected.getKey(), String.class);
+            String planText = String.join("\n", plan).toLowerCase(Locale.ROOT);
+            if (!planText.contains(expected.getValue())) {
+                missing++;
+                logger.warn("Query does not use index {}: {}\nPlan: {}", expected.getValue(), expected.getKey(), planText);
+            }
+        }
+        if (missing == 0) {
+            logger.info("All {} reservation query plans use their expected indexes.", EXPECTED_PLANS.size());
+        }
+    }
+}
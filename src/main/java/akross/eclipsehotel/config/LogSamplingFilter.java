@@ -0,0 +1,46 @@
+package akross.eclipsehotel.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples one request in {@code eclipse-hotel.logging.info-sample-rate} for INFO logging and
+ * marks the decision in the MDC, so a sampled request keeps all of its lines and the others
+ * keep only WARN and ERROR. The marker is only acted upon where {@link UnsampledInfoFilter}
+ * is configured, which is the prod logging profile.
+ */
+@Component
+public class LogSamplingFilter extends OncePerRequestFilter {
+
+    public static final String MDC_KEY = "sampled";
+
+    private final int sampleRate;
+
+    public LogSamplingFilter(@Value("${eclipse-hotel.logging.info-sample-rate:1}") int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (sampleRate <= 1) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(MDC_KEY, Boolean.toString(ThreadLocalRandom.current().nextInt(sampleRate) == 0));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package akross.eclipsehotel.config;
+
+import akross.eclipsehotel.model.RoomType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pricing rules applied on top of {@code Room.price}. Adjustments and discounts are whole
+ * percentages; season bounds are {@code MM-dd} days and may wrap around the new year.
+ */
+@ConfigurationProperties("eclipse-hotel.pricing")
+public record PricingProperties(
+        @DefaultValue("730") int calendarDays,
+        Map<RoomType, Integer> roomTypeAdjustments,
+        List<Season> seasons,
+        List<LengthOfStayDiscount> lengthOfStayDiscounts) {
+
+    public PricingProperties {
+        roomTypeAdjustments = roomTypeAdjustments == null ? Map.of() : Map.copyOf(roomTypeAdjustments);
+        seasons = seasons == null ? List.of() : List.copyOf(seasons);
+        lengthOfStayDiscounts = lengthOfStayDiscounts == null ? List.of() : List.copyOf(lengthOfStayDiscounts);
+    }
+
+    public record Season(String name, String from, String to, int adjustment, Set<RoomType> roomTypes) {
+    }
+
+    public record LengthOfStayDiscount(int minNights, int discount) {
+    }
+}
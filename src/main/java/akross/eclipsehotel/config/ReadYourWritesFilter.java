@@ -0,0 +1,98 @@
+package akross.eclipsehotel.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Keeps a client on the primary for as long as the replica may lag behind its last write. The
+ * first read-write transaction of a request sets a cookie that expires after the lag tolerance,
+ * and requests carrying it, like the rest of the writing request, read from the primary.
+ */
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "eclipse-hotel-last-write";
+
+    private static final ThreadLocal<RequestState> requests = new ThreadLocal<>();
+
+    private final Duration window;
+
+    ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    static boolean requiresPrimary() {
+        RequestState state = requests.get();
+        return state != null && state.primary;
+    }
+
+    static void written() {
+        RequestState state = requests.get();
+        if (state == null || state.cookieSet) {
+            return;
+        }
+        state.primary = true;
+        state.cookieSet = true;
+        if (!state.response.isCommitted()) {
+            state.response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(System.currentTimeMillis()))
+                    .maxAge(state.window)
+                    .path("/")
+                    .httpOnly(true)
+                    .build()
+                    .toString());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        requests.set(new RequestState(response, window, hasRecentWrite(request, window)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            requests.remove();
+        }
+    }
+
+    // Clients that keep the cookie past its expiry are not held on the primary for longer.
+    private static boolean hasRecentWrite(HttpServletRequest request, Duration window) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        return System.currentTimeMillis() - Long.parseLong(cookie.getValue()) < window.toMillis();
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class RequestState {
+
+        private final HttpServletResponse response;
+
+        private final Duration window;
+
+        private boolean primary;
+
+        private boolean cookieSet;
+
+        RequestState(HttpServletResponse response, Duration window, boolean primary) {
+            this.response = response;
+            this.window = window;
+            this.primary = primary;
+        }
+    }
+}
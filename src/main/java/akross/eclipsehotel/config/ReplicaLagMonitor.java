@@ -0,0 +1,99 @@
+package akross.eclipsehotel.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Measures replica lag with a heartbeat row: each run stamps tb_replica_heartbeat on the primary
+ * and reads the stamp back from the replica, so the lag is known to within one heartbeat interval.
+ * The replica counts as usable only while that lag is within the configured tolerance; a replica
+ * that cannot be read, or has not replicated the heartbeat table, is not used at all.
+ */
+class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+
+    private final JdbcTemplate replica;
+
+    private final long maxLagMillis;
+
+    private volatile long lagMillis = -1;
+
+    private volatile boolean replicaUsable;
+
+    private boolean heartbeatTableCreated;
+
+    private boolean replicaReadable = true;
+
+    ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        Gauge.builder("eclipsehotel.datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replica lag measured by the last heartbeat, or -1 when the replica could not be read")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${eclipse-hotel.datasource.replica.heartbeat-interval:PT1S}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            beat(now);
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replica heartbeat to the primary: {}", e.getMessage());
+            return;
+        }
+        try {
+            Long replicated = replica.queryForObject("select beat from tb_replica_heartbeat where id = 1", Long.class);
+            replicaReadable = true;
+            update(replicated == null ? -1 : Math.max(0, System.currentTimeMillis() - replicated));
+        } catch (DataAccessException e) {
+            // Said once per outage rather than on every heartbeat.
+            if (replicaReadable) {
+                logger.warn("Could not read the replica heartbeat: {}", e.getMessage());
+                replicaReadable = false;
+            }
+            update(-1);
+        }
+    }
+
+    // A negative lag means the replica could not be read.
+    void update(long lagMillis) {
+        this.lagMillis = lagMillis;
+        boolean usable = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Replica lag is {} ms; sending read-only transactions to the replica.", lagMillis);
+            } else {
+                logger.warn("Replica lag is {} ms, over the {} ms tolerance or unknown; sending all reads to the primary.",
+                        lagMillis, maxLagMillis);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    private void beat(long now) {
+        if (!heartbeatTableCreated) {
+            primary.execute("create table if not exists tb_replica_heartbeat (id int primary key, beat bigint not null)");
+            heartbeatTableCreated = true;
+        }
+        if (primary.update("update tb_replica_heartbeat set beat = ? where id = 1", now) == 0) {
+            primary.update("insert into tb_replica_heartbeat (id, beat) values (1, ?)", now);
+        }
+    }
+}
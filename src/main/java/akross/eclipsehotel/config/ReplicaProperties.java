@@ -0,0 +1,18 @@
+package akross.eclipsehotel.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection to the read replica. Reads are sent there only while its measured lag stays within
+ * {@code maxLag}, which is also how long a client keeps reading from the primary after a write.
+ */
+@ConfigurationProperties("eclipse-hotel.datasource.replica")
+public record ReplicaProperties(
+        String url,
+        String username,
+        String password,
+        @DefaultValue("5s") Duration maxLag) {
+}
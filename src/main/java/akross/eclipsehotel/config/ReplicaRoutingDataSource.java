@@ -0,0 +1,65 @@
+package akross.eclipsehotel.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything
+ * else. Falls back to the primary while the replica lags more than allowed or is unreachable, and
+ * for requests that must read their own writes. Only decides correctly behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers fetching
+ * the connection until the transaction's read-only flag is known.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    private final Counter primaryCounter;
+
+    private final Counter replicaCounter;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor,
+                             MeterRegistry meterRegistry) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.primaryCounter = counter(meterRegistry, Route.PRIMARY);
+        this.replicaCounter = counter(meterRegistry, Route.REPLICA);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route();
+        (route == Route.REPLICA ? replicaCounter : primaryCounter).increment();
+        return route;
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWritesFilter.written();
+            }
+            return Route.PRIMARY;
+        }
+        if (ReadYourWritesFilter.requiresPrimary() || !replicaLagMonitor.isReplicaUsable()) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Route route) {
+        return Counter.builder("eclipsehotel.datasource.connections")
+                .description("Connections handed out by the routing data source, by target")
+                .tag("route", route.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package akross.eclipsehotel.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()}
+ * and {@link #stop()}, keeping them for {@link #statements()}. Statements issued while no count
+ * is running are ignored.
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> current = statements.get();
+        if (current != null) {
+            current.add(sql);
+        }
+        return sql;
+    }
+
+    public void start() {
+        statements.set(new ArrayList<>());
+    }
+
+    public List<String> statements() {
+        List<String> current = statements.get();
+        return current == null ? List.of() : List.copyOf(current);
+    }
+
+    public long stop() {
+        List<String> current = statements.get();
+        statements.remove();
+        return current == null ? 0 : current.size();
+    }
+}
@@ -0,0 +1,24 @@
+package akross.eclipsehotel.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops INFO events logged while handling a request that {@link LogSamplingFilter} did not
+ * sample. Turbo filters run before the logging event is created, so a dropped call costs an
+ * MDC lookup and allocates nothing.
+ */
+public class UnsampledInfoFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == Level.INFO && "false".equals(MDC.get(LogSamplingFilter.MDC_KEY))) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,30 @@
+package akross.eclipsehotel.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spring Boot only switches Tomcat, the task executor and the scheduler to virtual threads
+ * when running on Java 21 or later and silently keeps platform threads otherwise, so say so
+ * when the mode was asked for on an older JVM.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled")
+public class VirtualThreadsCheck implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            logger.warn("Virtual threads were enabled but Java {} does not support them; requests run on platform threads.", javaVersion);
+        } else {
+            logger.info("Serving requests and async work on virtual threads.");
+        }
+    }
+}
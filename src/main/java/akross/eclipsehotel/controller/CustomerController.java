@@ -1,13 +1,19 @@
 package akross.eclipsehotel.controller;
 
+import akross.eclipsehotel.config.CatalogVersions;
 import akross.eclipsehotel.dto.CustomerDTO;
+import akross.eclipsehotel.dto.CustomerReservationDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.exception.NotFoundException;
 import akross.eclipsehotel.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -20,18 +26,24 @@ public class CustomerController {
 
     private final CustomerService customerService;
 
-    public CustomerController(CustomerService customerService) {
+    private final CatalogVersions catalogVersions;
+
+    public CustomerController(CustomerService customerService, CatalogVersions catalogVersions) {
         this.customerService = customerService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    @Operation(summary = "Get all customers", description = "Retrieve a list of all registered customers")
+    @Operation(summary = "Get all customers", description = "Retrieve a list of all registered customers, or one page of them ordered by ID when 'after' or 'limit' is given")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful")
     })
-    public ResponseEntity<List<CustomerDTO>> getAllCustomers() {
-        var customers = customerService.findAll();
-        var customersDto = customers.stream().map(CustomerDTO::new).toList();
+    public ResponseEntity<List<CustomerDTO>> getAllCustomers(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        var customersDto = after == null && limit == null
+                ? customerService.findAllDto()
+                : customerService.findDtoPage(after, limit);
         return ResponseEntity.ok(customersDto);
     }
 
@@ -39,11 +51,31 @@ public class CustomerController {
     @Operation(summary = "Get a customer by ID", description = "Retrieve a specific customer based on its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "304", description = "Customer unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
-    public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
-       var customer = customerService.findById(id);
-        return ResponseEntity.ok(new CustomerDTO(customer));
+    public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id, WebRequest request) {
+        return catalogVersions.conditionalGet(request, catalogVersions.customer(id), () -> customerService.findDtoById(id));
+    }
+
+    @GetMapping("/{id}/reservations")
+    @Operation(summary = "Get a customer's reservations", description = "Retrieve one page of a customer's reservations ordered by ID, with the number and type of each room")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "400", description = "Invalid page limit provided"),
+            @ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    public ResponseEntity<List<CustomerReservationDTO>> getCustomerReservations(
+            @PathVariable Long id,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(customerService.findReservations(id, after, limit));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
     }
 
     @PostMapping
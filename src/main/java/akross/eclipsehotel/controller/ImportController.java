@@ -0,0 +1,56 @@
+package akross.eclipsehotel.controller;
+
+import akross.eclipsehotel.dto.ImportReportDTO;
+import akross.eclipsehotel.service.ImportFormat;
+import akross.eclipsehotel.service.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+@Tag(name = "Imports Controller", description = "RESTful API for bulk loading rooms and customers.")
+public class ImportController {
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(value = "/rooms", consumes = {ImportFormat.CSV_MEDIA_TYPE, ImportFormat.NDJSON_MEDIA_TYPE})
+    @Operation(summary = "Import rooms", description = "Stream rooms from CSV with a 'number,type,price' header or from NDJSON, skipping numbers that already exist, and report how many were imported and why the others were rejected")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed; see the report for rejected records")
+    })
+    public ResponseEntity<ImportReportDTO> importRooms(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream body) {
+        return ResponseEntity.ok(importService.importRooms(body, formatOf(contentType)));
+    }
+
+    @PostMapping(value = "/customers", consumes = {ImportFormat.CSV_MEDIA_TYPE, ImportFormat.NDJSON_MEDIA_TYPE})
+    @Operation(summary = "Import customers", description = "Stream customers from CSV with a 'name,email,phone,createdAt' header or from NDJSON, skipping emails that already exist, and report how many were imported and why the others were rejected")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed; see the report for rejected records")
+    })
+    public ResponseEntity<ImportReportDTO> importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) {
+        return ResponseEntity.ok(importService.importCustomers(body, formatOf(contentType)));
+    }
+
+    private static ImportFormat formatOf(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.parseMediaType(ImportFormat.CSV_MEDIA_TYPE))
+                ? ImportFormat.CSV
+                : ImportFormat.NDJSON;
+    }
+}
@@ -0,0 +1,48 @@
+package akross.eclipsehotel.controller;
+
+import akross.eclipsehotel.dto.QuoteDTO;
+import akross.eclipsehotel.dto.QuoteRequestDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.exception.NotFoundException;
+import akross.eclipsehotel.service.QuoteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/quotes")
+@Tag(name = "Quotes Controller", description = "RESTful API for pricing stays.")
+public class QuoteController {
+
+    private final QuoteService quoteService;
+
+    public QuoteController(QuoteService quoteService) {
+        this.quoteService = quoteService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Quote rooms for periods", description = "Price every listed room for every listed period in one call, applying room type, seasonal and length-of-stay rules, and tell whether the room is free in that period")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "400", description = "Invalid rooms or periods provided"),
+            @ApiResponse(responseCode = "404", description = "Room not found")
+    })
+    public ResponseEntity<List<QuoteDTO>> quote(@RequestBody QuoteRequestDTO request) {
+        try {
+            return ResponseEntity.ok(quoteService.quote(request));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package akross.eclipsehotel.controller;
+
+import akross.eclipsehotel.dto.OccupancyReportDTO;
+import akross.eclipsehotel.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/reports")
+@Tag(name = "Reports Controller", description = "RESTful API for occupancy reports.")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get the occupancy report", description = "Retrieve open and future reservations, vacant and occupied rooms, the most occupied and most canceled rooms and the customers with the most stays")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    public ResponseEntity<OccupancyReportDTO> getOccupancyReport() {
+        return ResponseEntity.ok(reportService.getOccupancyReport());
+    }
+}
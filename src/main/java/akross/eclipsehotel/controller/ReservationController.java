@@ -1,85 +1,188 @@
 package akross.eclipsehotel.controller;
 
+import akross.eclipsehotel.config.CatalogVersions;
+import akross.eclipsehotel.dto.ReservationBatchItemDTO;
 import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.dto.ReservationPageDTO;
 import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.exception.IdempotencyConflictException;
 import akross.eclipsehotel.exception.NotFoundException;
 import akross.eclipsehotel.model.Reservation;
 import akross.eclipsehotel.model.ReservationStatus;
-import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.repository.ReservationSearchCriteria;
+import akross.eclipsehotel.repository.ReservationSort;
+import akross.eclipsehotel.service.IdempotencyService;
+import akross.eclipsehotel.service.IdempotentReservation;
+import akross.eclipsehotel.service.ReservationBatchResult;
 import akross.eclipsehotel.service.ReservationService;
-import akross.eclipsehotel.service.RoomService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.IntStream;
 
 @RestController
 @RequestMapping("/reservations")
 @Tag(name = "Reservations Controller", description = "RESTful API for managing reservations.")
 public class ReservationController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     @Autowired
     private ReservationService reservationService;
 
     @Autowired
-    private CustomerService customerService;
+    private IdempotencyService idempotencyService;
 
     @Autowired
-    private RoomService roomService;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
 
     @PostMapping
-    @Operation(summary = "Create a new reservation", description = "Create a new reservation and return the created reservation's data")
+    @Operation(summary = "Create a new reservation", description = "Create a new reservation and return the created reservation's data. Retries sent with the same Idempotency-Key header return the original reservation instead of booking again")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Reservation created successfully"),
+            @ApiResponse(responseCode = "201", description = "Reservation created successfully, or replayed for a known Idempotency-Key"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key already used for a different reservation or still being processed"),
             @ApiResponse(responseCode = "422", description = "Invalid reservation data provided")
     })
-    public ResponseEntity<ReservationDTO> openReservation(@RequestBody ReservationDTO reservationDTO) {
+    public ResponseEntity<ReservationDTO> openReservation(
+            @RequestBody ReservationDTO reservationDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            ReservationDTO reservationDto = open(reservationDTO);
+            return ResponseEntity.created(locationOf(reservationDto)).body(reservationDto);
+        }
+        try {
+            IdempotentReservation result = idempotencyService.openReservation(idempotencyKey, reservationDTO, () -> open(reservationDTO));
+            return ResponseEntity.created(locationOf(result.reservation()))
+                    .header(IDEMPOTENT_REPLAYED, Boolean.toString(result.replayed()))
+                    .body(result.reservation());
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        }
+    }
 
-        Reservation reservation = reservationDTO.toModel();
-        reservation.setCustomer(customerService.findById(reservationDTO.customerId()));
-        reservation.setRoom(roomService.findById(reservationDTO.roomId()));
-        reservation = reservationService.openReservation(reservation);
-        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
-                .path("/{id}")
-                .buildAndExpand(reservation.getId())
-                .toUri();
-        return ResponseEntity.created(location).body(new ReservationDTO(reservation));
+    @PostMapping("/batch")
+    @Operation(summary = "Create reservations in batch", description = "Create many reservations, a few rooms per transaction, and report the outcome of each item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see each item for its outcome"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch provided, too large or with null items")
+    })
+    public ResponseEntity<List<ReservationBatchItemDTO>> openReservations(@RequestBody List<ReservationDTO> reservationsDto) {
+        if (reservationsDto.contains(null)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        List<Reservation> reservations = reservationsDto.stream().map(ReservationDTO::toModel).toList();
+        List<ReservationBatchResult> results;
+        try {
+            results = reservationService.openReservations(reservations);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        var resultsDto = IntStream.range(0, results.size())
+                .mapToObj(index -> new ReservationBatchItemDTO(index, results.get(index)))
+                .toList();
+        return ResponseEntity.ok(resultsDto);
     }
 
     @GetMapping("/by-date-range")
-    @Operation(summary = "Get reservations by date range", description = "Retrieve a list of reservations within a specified date range")
+    @Operation(summary = "Get reservations by date range", description = "Retrieve a list of reservations within a specified date range, or one page of them ordered by ID when 'after' or 'limit' is given")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful"),
             @ApiResponse(responseCode = "400", description = "Invalid date range provided")
     })
     public ResponseEntity<List<ReservationDTO>> findReservationsBetween(
             @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        List<Reservation> reservations = reservationService.findReservationsBetween(start, end);
-        var reservationsDto = reservations.stream().map(ReservationDTO::new).toList();
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        List<ReservationDTO> reservationsDto = after == null && limit == null
+                ? reservationService.findReservationsBetween(start, end)
+                : reservationService.findReservationsBetween(start, end, after, limit);
         return ResponseEntity.ok(reservationsDto);
     }
 
+    @GetMapping(value = "/by-date-range/stream", produces = NDJSON)
+    @Operation(summary = "Stream reservations by date range", description = "Stream every reservation within a specified date range as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    public ResponseEntity<StreamingResponseBody> streamReservationsBetween(
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        StreamingResponseBody body = outputStream -> reservationService.streamReservationsBetween(start, end, reservation -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(reservation));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search reservations", description = "Retrieve one page of the reservations matching every given filter, sorted by ID, check-in or check-out. Pass the returned 'next' cursor as 'cursor' to get the following page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "400", description = "Invalid filters, cursor or limit provided")
+    })
+    public ResponseEntity<ReservationPageDTO> searchReservations(
+            @RequestParam(value = "customerId", required = false) Long customerId,
+            @RequestParam(value = "roomId", required = false) Long roomId,
+            @RequestParam(value = "roomType", required = false) RoomType roomType,
+            @RequestParam(value = "status", required = false) List<ReservationStatus> statuses,
+            @RequestParam(value = "checkinFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkinFrom,
+            @RequestParam(value = "checkinTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkinTo,
+            @RequestParam(value = "checkoutFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkoutFrom,
+            @RequestParam(value = "checkoutTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkoutTo,
+            @RequestParam(value = "sort", defaultValue = "ID") ReservationSort sort,
+            @RequestParam(value = "direction", defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        var criteria = new ReservationSearchCriteria(customerId, roomId, roomType, statuses,
+                checkinFrom, checkinTo, checkoutFrom, checkoutTo, sort, direction);
+        try {
+            return ResponseEntity.ok(reservationService.searchReservations(criteria, cursor, limit));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
     @GetMapping("/in-use")
     @Operation(summary = "Get all rooms in use", description = "Retrieve a list of all rooms that are currently in use")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Operation successful")
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "304", description = "Reservations in use unchanged since the ETag in If-None-Match")
     })
-    public ResponseEntity<List<ReservationDTO>> getInUseReservations() {
-        List<Reservation> inUseReservations = reservationService.findInUseReservations();
-        List<ReservationDTO> inUseReservationsDto = inUseReservations.stream()
-                .map(ReservationDTO::new).toList();
-        return ResponseEntity.ok(inUseReservationsDto);
+    public ResponseEntity<List<ReservationDTO>> getInUseReservations(WebRequest request) {
+        return catalogVersions.conditionalGet(request, catalogVersions.inUseReservations(),
+                reservationService::findInUseReservations);
     }
 
     @PostMapping("/cancel/{id}")
@@ -91,8 +194,7 @@ public class ReservationController {
     })
     public ResponseEntity<ReservationDTO> cancelReservation(@PathVariable Long id) {
         try {
-            Reservation reservation = reservationService.cancelReservation(id);
-            ReservationDTO reservationDto = new ReservationDTO(reservation);
+            ReservationDTO reservationDto = reservationService.cancelReservation(id);
             return ResponseEntity.ok(reservationDto);
         } catch (NotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -100,4 +202,29 @@ public class ReservationController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
+
+    @GetMapping("/{id}/events")
+    @Operation(summary = "Get the history of a reservation", description = "Retrieve the events of a reservation, from its opening to its latest status change, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found")
+    })
+    public ResponseEntity<List<ReservationEventDTO>> getReservationEvents(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(reservationService.findEvents(id));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    private ReservationDTO open(ReservationDTO reservationDTO) {
+        return new ReservationDTO(reservationService.openReservation(reservationDTO.toModel()));
+    }
+
+    private URI locationOf(ReservationDTO reservationDto) {
+        return ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(reservationDto.id())
+                .toUri();
+    }
 }
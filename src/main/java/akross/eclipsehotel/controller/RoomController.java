@@ -1,16 +1,25 @@
 package akross.eclipsehotel.controller;
 
+import akross.eclipsehotel.config.CatalogVersions;
 import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.dto.RoomReservationDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.exception.NotFoundException;
+import akross.eclipsehotel.model.RoomType;
 import akross.eclipsehotel.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,30 +30,70 @@ public class RoomController {
 
     private final RoomService roomService;
 
-    public RoomController(RoomService roomService) {
+    private final CatalogVersions catalogVersions;
+
+    public RoomController(RoomService roomService, CatalogVersions catalogVersions) {
         this.roomService = roomService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    @Operation(summary = "Get all rooms", description = "Retrieve a list of all registered rooms")
+    @Operation(summary = "Get all rooms", description = "Retrieve a list of all registered rooms, or one page of them ordered by ID when 'after' or 'limit' is given")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Operation successful")
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "304", description = "Rooms unchanged since the ETag in If-None-Match")
+    })
+    public ResponseEntity<List<RoomDTO>> getAllRooms(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest request) {
+        return catalogVersions.conditionalGet(request, catalogVersions.roomList(), () -> after == null && limit == null
+                ? roomService.findAllDto()
+                : roomService.findDtoPage(after, limit));
+    }
+
+    @GetMapping("/available")
+    @Operation(summary = "Get available rooms", description = "Retrieve every room that is free between the given check-in and check-out dates, optionally filtered by type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range provided")
     })
-    public ResponseEntity<List<RoomDTO>> getAllRooms() {
-        var rooms = roomService.findAll();
-        var roomsDto = rooms.stream().map(RoomDTO::new).toList();
-        return ResponseEntity.ok(roomsDto);
+    public ResponseEntity<List<RoomDTO>> getAvailableRooms(
+            @RequestParam("checkin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkin,
+            @RequestParam("checkout") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkout,
+            @RequestParam(value = "type", required = false) RoomType type) {
+        return ResponseEntity.ok(roomService.findAvailable(checkin, checkout, type));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a room by ID", description = "Retrieve a specific room based on its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "304", description = "Room unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Room not found")
     })
-    public ResponseEntity<RoomDTO> getRoomById(@PathVariable Long id) {
-        var room = roomService.findById(id);
-        return ResponseEntity.ok(new RoomDTO(room));
+    public ResponseEntity<RoomDTO> getRoomById(@PathVariable Long id, WebRequest request) {
+        return catalogVersions.conditionalGet(request, catalogVersions.room(id), () -> roomService.findDtoById(id));
+    }
+
+    @GetMapping("/{id}/reservations")
+    @Operation(summary = "Get a room's reservations", description = "Retrieve one page of a room's reservations ordered by ID, with the name of each customer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful"),
+            @ApiResponse(responseCode = "400", description = "Invalid page limit provided"),
+            @ApiResponse(responseCode = "404", description = "Room not found")
+    })
+    public ResponseEntity<List<RoomReservationDTO>> getRoomReservations(
+            @PathVariable Long id,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(roomService.findReservations(id, after, limit));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (BusinessException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
     }
 
     @PostMapping
@@ -0,0 +1,18 @@
+package akross.eclipsehotel.dto;
+
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.RoomType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record CustomerReservationDTO(
+        Long id,
+        Long roomId,
+        String roomNumber,
+        RoomType roomType,
+        LocalDate checkin,
+        LocalDate checkout,
+        ReservationStatus status,
+        BigDecimal total) {
+}
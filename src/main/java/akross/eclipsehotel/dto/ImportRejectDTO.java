@@ -0,0 +1,7 @@
+package akross.eclipsehotel.dto;
+
+public record ImportRejectDTO(
+        long record,
+        String key,
+        String reason) {
+}
@@ -0,0 +1,12 @@
+package akross.eclipsehotel.dto;
+
+import java.util.List;
+
+public record ImportReportDTO(
+        String resource,
+        long read,
+        long imported,
+        long rejected,
+        boolean completed,
+        List<ImportRejectDTO> rejects) {
+}
@@ -0,0 +1,14 @@
+package akross.eclipsehotel.dto;
+
+import java.util.List;
+
+public record OccupancyReportDTO(
+        long totalRooms,
+        long openReservations,
+        long futureReservations,
+        long occupiedRooms,
+        long vacantRooms,
+        List<RankingEntryDTO> mostOccupiedRooms,
+        RankingEntryDTO mostCanceledRoom,
+        List<RankingEntryDTO> topCustomers) {
+}
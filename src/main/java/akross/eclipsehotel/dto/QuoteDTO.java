@@ -0,0 +1,13 @@
+package akross.eclipsehotel.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record QuoteDTO(
+        Long roomId,
+        LocalDate checkin,
+        LocalDate checkout,
+        long nights,
+        BigDecimal total,
+        boolean available) {
+}
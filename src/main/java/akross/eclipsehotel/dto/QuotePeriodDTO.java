@@ -0,0 +1,8 @@
+package akross.eclipsehotel.dto;
+
+import java.time.LocalDate;
+
+public record QuotePeriodDTO(
+        LocalDate checkin,
+        LocalDate checkout) {
+}
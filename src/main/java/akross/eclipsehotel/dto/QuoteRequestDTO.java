@@ -0,0 +1,8 @@
+package akross.eclipsehotel.dto;
+
+import java.util.List;
+
+public record QuoteRequestDTO(
+        List<Long> roomIds,
+        List<QuotePeriodDTO> periods) {
+}
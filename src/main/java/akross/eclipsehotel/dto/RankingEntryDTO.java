@@ -0,0 +1,11 @@
+package akross.eclipsehotel.dto;
+
+public record RankingEntryDTO(
+        Long id,
+        String label,
+        long count) {
+
+    public RankingEntryDTO withLabel(String label) {
+        return new RankingEntryDTO(id, label, count);
+    }
+}
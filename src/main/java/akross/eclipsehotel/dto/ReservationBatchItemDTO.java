@@ -0,0 +1,19 @@
+package akross.eclipsehotel.dto;
+
+import akross.eclipsehotel.service.ReservationBatchResult;
+
+public record ReservationBatchItemDTO(
+        int index,
+        boolean success,
+        ReservationDTO reservation,
+        String error) {
+
+    public ReservationBatchItemDTO(int index, ReservationBatchResult result) {
+        this(
+                index,
+                result.isSuccess(),
+                result.isSuccess() ? new ReservationDTO(result.reservation()) : null,
+                result.error()
+        );
+    }
+}
@@ -1,8 +1,11 @@
 package akross.eclipsehotel.dto;
 
+import akross.eclipsehotel.model.Customer;
 import akross.eclipsehotel.model.Reservation;
 import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public record ReservationDTO(
@@ -11,7 +14,8 @@ public record ReservationDTO(
         Long roomId,
         LocalDate checkin,
         LocalDate checkout,
-        ReservationStatus status) {
+        ReservationStatus status,
+        BigDecimal total) {
 
     public ReservationDTO(Reservation model) {
         this(
@@ -20,16 +24,31 @@ public record ReservationDTO(
                 model.getRoom().getId(),
                 model.getCheckin(),
                 model.getCheckout(),
-                model.getStatus()
+                model.getStatus(),
+                model.getTotal()
         );
     }
 
+    public ReservationDTO withStatus(ReservationStatus status) {
+        return new ReservationDTO(id, customerId, roomId, checkin, checkout, status, total);
+    }
+
     public Reservation toModel() {
         Reservation model = new Reservation();
         model.setId(id);
         model.setCheckin(checkin);
         model.setCheckout(checkout);
         model.setStatus(status);
+        if (customerId != null) {
+            Customer customer = new Customer();
+            customer.setId(customerId);
+            model.setCustomer(customer);
+        }
+        if (roomId != null) {
+            Room room = new Room();
+            room.setId(roomId);
+            model.setRoom(room);
+        }
         return model;
     }
 }
@@ -0,0 +1,17 @@
+package akross.eclipsehotel.dto;
+
+import akross.eclipsehotel.model.ReservationEventType;
+import akross.eclipsehotel.model.ReservationStatus;
+
+import java.time.Instant;
+
+public record ReservationEventDTO(
+        Long id,
+        Long reservationId,
+        Long roomId,
+        Long customerId,
+        ReservationEventType type,
+        ReservationStatus previousStatus,
+        ReservationStatus status,
+        Instant occurredAt) {
+}
@@ -0,0 +1,8 @@
+package akross.eclipsehotel.dto;
+
+import java.util.List;
+
+public record ReservationPageDTO(
+        List<ReservationDTO> reservations,
+        String next) {
+}
@@ -0,0 +1,10 @@
+package akross.eclipsehotel.dto;
+
+import java.time.LocalDate;
+
+public record ReservationPeriodDTO(
+        Long reservationId,
+        Long roomId,
+        LocalDate checkin,
+        LocalDate checkout) {
+}
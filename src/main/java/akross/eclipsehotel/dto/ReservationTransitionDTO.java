@@ -0,0 +1,13 @@
+package akross.eclipsehotel.dto;
+
+import akross.eclipsehotel.model.ReservationStatus;
+
+import java.time.LocalDate;
+
+public record ReservationTransitionDTO(
+        Long id,
+        Long roomId,
+        Long customerId,
+        ReservationStatus status,
+        LocalDate checkout) {
+}
@@ -0,0 +1,16 @@
+package akross.eclipsehotel.dto;
+
+import akross.eclipsehotel.model.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record RoomReservationDTO(
+        Long id,
+        Long customerId,
+        String customerName,
+        LocalDate checkin,
+        LocalDate checkout,
+        ReservationStatus status,
+        BigDecimal total) {
+}
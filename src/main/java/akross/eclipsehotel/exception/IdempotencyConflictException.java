@@ -0,0 +1,10 @@
+package akross.eclipsehotel.exception;
+
+public class IdempotencyConflictException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -6,16 +6,20 @@ import java.time.LocalDate;
 import java.util.Set;
 
 @Entity(name = "tb_customers")
+@Table(uniqueConstraints = @UniqueConstraint(name = Customer.EMAIL_CONSTRAINT, columnNames = "email"))
 public class Customer {
+    public static final String EMAIL_CONSTRAINT = "uk_customers_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customerSequence")
+    @SequenceGenerator(name = "customerSequence", sequenceName = "tb_customers_seq", allocationSize = 50)
     @Column(name = "customerId")
     private Long id;
 
     @Column(length = 50, nullable = false)
     private String name;
 
-    @Column(length = 100, nullable = false, unique = true)
+    @Column(length = 100, nullable = false)
     private String email;
 
     @Column(length = 50, nullable = false)
@@ -27,6 +31,10 @@ public class Customer {
     @OneToMany(mappedBy = "customer", fetch = FetchType.LAZY)
     private Set<Reservation> reservations;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -75,4 +83,12 @@ public class Customer {
     public void setReservations(Set<Reservation> reservations) {
         this.reservations = reservations;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
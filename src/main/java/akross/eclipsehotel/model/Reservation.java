@@ -1,12 +1,22 @@
 package akross.eclipsehotel.model;
 
 import jakarta.persistence.*;
+
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity(name = "tb_reservations")
+@Table(indexes = {
+        @Index(name = "idx_reservations_room_status_period", columnList = "roomId, status, checkin, checkout"),
+        @Index(name = "idx_reservations_status_checkin", columnList = "status, checkin"),
+        @Index(name = "idx_reservations_customer_status", columnList = "customerId, status"),
+        @Index(name = "idx_reservations_checkin", columnList = "checkin"),
+        @Index(name = "idx_reservations_checkout", columnList = "checkout")
+})
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservationSequence")
+    @SequenceGenerator(name = "reservationSequence", sequenceName = "tb_reservations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +37,13 @@ public class Reservation {
     @Column(nullable = false)
     private ReservationStatus status;
 
+    @Column(precision = 12, scale = 2)
+    private BigDecimal total;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -75,4 +92,20 @@ public class Reservation {
     public void setStatus(ReservationStatus status) {
         this.status = status;
     }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
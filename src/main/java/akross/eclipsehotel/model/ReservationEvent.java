@@ -0,0 +1,106 @@
+package akross.eclipsehotel.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Append-only: rows are inserted in the transaction that changes the reservation and never updated.
+@Entity(name = "tb_reservation_events")
+@Table(indexes = {
+        @Index(name = "idx_reservation_events_reservation", columnList = "reservationId")
+})
+public class ReservationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservationEventSequence")
+    @SequenceGenerator(name = "reservationEventSequence", sequenceName = "tb_reservation_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long reservationId;
+
+    @Column(nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationEventType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ReservationStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public ReservationEventType getType() {
+        return type;
+    }
+
+    public void setType(ReservationEventType type) {
+        this.type = type;
+    }
+
+    public ReservationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(ReservationStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
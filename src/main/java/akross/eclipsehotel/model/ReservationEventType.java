@@ -0,0 +1,9 @@
+package akross.eclipsehotel.model;
+
+public enum ReservationEventType {
+    OPENED,      // Reserva criada, com o status inicial calculado pelas datas
+    CANCELED,    // Reserva cancelada
+    CHECKED_IN,  // Reserva passou a IN_USE com a chegada do check-in
+    FINISHED,    // Reserva concluída após o check-out
+    ABSENT       // Responsável pela reserva não compareceu
+}
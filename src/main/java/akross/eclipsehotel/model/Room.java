@@ -6,9 +6,14 @@ import java.math.BigDecimal;
 import java.util.Set;
 
 @Entity(name = "tb_rooms")
+@Table(indexes = {
+        @Index(name = "idx_rooms_number", columnList = "number"),
+        @Index(name = "idx_rooms_type", columnList = "type")
+})
 public class Room {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roomSequence")
+    @SequenceGenerator(name = "roomSequence", sequenceName = "tb_rooms_seq", allocationSize = 50)
     @Column(name = "roomId")
     private Long id;
 
@@ -23,6 +28,10 @@ public class Room {
     @OneToMany(mappedBy = "room", fetch = FetchType.LAZY)
     private Set<Reservation> reservations;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -63,4 +72,12 @@ public class Room {
     public void setReservations(Set<Reservation> reservations) {
         this.reservations = reservations;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -1,10 +1,31 @@
 package akross.eclipsehotel.repository;
 
+import akross.eclipsehotel.dto.CustomerDTO;
 import akross.eclipsehotel.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    String SELECT_DTO = "select new akross.eclipsehotel.dto.CustomerDTO(c.id, c.name, c.email, c.phone, c.createdAt) from tb_customers c ";
+
     boolean existsByEmail(String email);
 
+    @Query("select c.email from tb_customers c")
+    List<String> findAllEmails();
+
+    @Query(SELECT_DTO + "order by c.id")
+    List<CustomerDTO> findAllDto();
+
+    @Query(SELECT_DTO + "where c.id > :after order by c.id")
+    List<CustomerDTO> findDtoPage(@Param("after") Long after, Limit limit);
+
+    @Query(SELECT_DTO + "where c.id = :id")
+    Optional<CustomerDTO> findDtoById(@Param("id") Long id);
+
 }
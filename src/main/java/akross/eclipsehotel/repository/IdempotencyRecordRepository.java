@@ -0,0 +1,20 @@
+package akross.eclipsehotel.repository;
+
+import akross.eclipsehotel.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("delete from tb_idempotency_keys k where k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+
+    @Modifying
+    @Query("delete from tb_idempotency_keys k where k.idempotencyKey = :key and k.createdAt < :before")
+    int deleteExpired(@Param("key") String idempotencyKey, @Param("before") Instant before);
+}
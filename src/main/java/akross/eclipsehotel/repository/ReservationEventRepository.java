@@ -0,0 +1,33 @@
+package akross.eclipsehotel.repository;
+
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.model.ReservationEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ReservationEventRepository extends JpaRepository<ReservationEvent, Long> {
+
+    String SELECT_DTO = "select new akross.eclipsehotel.dto.ReservationEventDTO(" +
+            "e.id, e.reservationId, e.roomId, e.customerId, e.type, e.previousStatus, e.status, e.occurredAt) " +
+            "from tb_reservation_events e ";
+
+    @Query(SELECT_DTO + "where e.id > :after order by e.id")
+    List<ReservationEventDTO> findDtoAfter(@Param("after") Long after, Limit limit);
+
+    @Query(SELECT_DTO + "where e.reservationId = :reservationId order by e.id")
+    List<ReservationEventDTO> findDtoByReservationId(@Param("reservationId") Long reservationId);
+
+    // Reservations written before the log existed, or seeded straight into the table, get one OPENED event with their current status.
+    @Modifying
+    @Query("insert into tb_reservation_events (reservationId, roomId, customerId, type, status, occurredAt) " +
+            "select r.id, r.room.id, r.customer.id, akross.eclipsehotel.model.ReservationEventType.OPENED, r.status, :now " +
+            "from tb_reservations r where not exists " +
+            "(select 1 from tb_reservation_events e where e.reservationId = r.id)")
+    int insertOpenedForUnlogged(@Param("now") Instant now);
+}
@@ -1,19 +1,109 @@
 package akross.eclipsehotel.repository;
 
+import akross.eclipsehotel.dto.CustomerReservationDTO;
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.ReservationPeriodDTO;
+import akross.eclipsehotel.dto.ReservationTransitionDTO;
+import akross.eclipsehotel.dto.RoomReservationDTO;
 import akross.eclipsehotel.model.Reservation;
 import akross.eclipsehotel.model.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-    boolean existsByRoomNumberAndStatusInAndCheckoutAfterAndCheckinBefore(
-            String roomNumber,
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationSearchRepository {
+
+    String SELECT_DTO = "select new akross.eclipsehotel.dto.ReservationDTO(" +
+            "r.id, r.customer.id, r.room.id, r.checkin, r.checkout, r.status, r.total) from tb_reservations r ";
+
+    boolean existsByRoomIdAndStatusInAndCheckoutAfterAndCheckinBefore(
+            Long roomId,
             List<ReservationStatus> statuses,
             LocalDate checkin,
             LocalDate checkout
     );
     List<Reservation> findByCheckinBetween(LocalDate start, LocalDate end);
     List<Reservation> findByStatus(ReservationStatus status);
+
+    @Query(SELECT_DTO + "where r.id = :id")
+    Optional<ReservationDTO> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "where r.status = :status")
+    List<ReservationDTO> findDtoByStatus(@Param("status") ReservationStatus status);
+
+    @Query(SELECT_DTO + "where r.checkin between :start and :end")
+    List<ReservationDTO> findDtoByCheckinBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query(SELECT_DTO + "where r.checkin between :start and :end and r.id > :after order by r.id")
+    List<ReservationDTO> findDtoByCheckinBetween(@Param("start") LocalDate start, @Param("end") LocalDate end,
+                                                 @Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "where r.checkin between :start and :end order by r.id")
+    Stream<ReservationDTO> streamDtoByCheckinBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Booking history pages: the room or customer columns come from the same join, never from lazy loads.
+    @Query("select new akross.eclipsehotel.dto.CustomerReservationDTO(" +
+            "r.id, ro.id, ro.number, ro.type, r.checkin, r.checkout, r.status, r.total) " +
+            "from tb_reservations r join r.room ro where r.customer.id = :customerId and r.id > :after order by r.id")
+    List<CustomerReservationDTO> findHistoryOfCustomer(@Param("customerId") Long customerId,
+                                                       @Param("after") Long after, Limit limit);
+
+    @Query("select new akross.eclipsehotel.dto.RoomReservationDTO(" +
+            "r.id, c.id, c.name, r.checkin, r.checkout, r.status, r.total) " +
+            "from tb_reservations r join r.customer c where r.room.id = :roomId and r.id > :after order by r.id")
+    List<RoomReservationDTO> findHistoryOfRoom(@Param("roomId") Long roomId, @Param("after") Long after, Limit limit);
+
+    @Query("select new akross.eclipsehotel.dto.ReservationPeriodDTO(r.id, r.room.id, r.checkin, r.checkout) " +
+            "from tb_reservations r where r.status in :statuses")
+    List<ReservationPeriodDTO> findPeriodsByStatusIn(@Param("statuses") List<ReservationStatus> statuses);
+
+    @Query("select min(r.id) from tb_reservations r where r.status in :statuses")
+    Long findMinIdByStatusIn(@Param("statuses") List<ReservationStatus> statuses);
+
+    @Query("select max(r.id) from tb_reservations r where r.status in :statuses")
+    Long findMaxIdByStatusIn(@Param("statuses") List<ReservationStatus> statuses);
+
+    // Rows that updateStatusOfEnded or updateStatusOfStarted would move for the same range and day, locked so
+    // that a concurrent cancellation cannot change them between this read and those updates.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new akross.eclipsehotel.dto.ReservationTransitionDTO(r.id, r.room.id, r.customer.id, r.status, r.checkout) " +
+            "from tb_reservations r where r.id between :firstId and :lastId and r.status in :statuses " +
+            "and (r.checkout < :today or (r.status = akross.eclipsehotel.model.ReservationStatus.SCHEDULED and r.checkin <= :today))")
+    List<ReservationTransitionDTO> findDueForTransition(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                                                        @Param("statuses") List<ReservationStatus> statuses,
+                                                        @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("update tb_reservations r set r.status = :to, r.version = r.version + 1 " +
+            "where r.id between :firstId and :lastId and r.status in :from and r.checkout < :today")
+    int updateStatusOfEnded(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                            @Param("from") List<ReservationStatus> from, @Param("to") ReservationStatus to,
+                            @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("update tb_reservations r set r.status = :to, r.version = r.version + 1 " +
+            "where r.id between :firstId and :lastId and r.status in :from and r.checkin <= :today")
+    int updateStatusOfStarted(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                              @Param("from") List<ReservationStatus> from, @Param("to") ReservationStatus to,
+                              @Param("today") LocalDate today);
+
+    // Compare-and-set: moves the reservation only if it still has the status the caller read.
+    @Modifying
+    @Query("update tb_reservations r set r.status = :to, r.version = r.version + 1 " +
+            "where r.id = :id and r.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") ReservationStatus expected,
+                            @Param("to") ReservationStatus to);
 }
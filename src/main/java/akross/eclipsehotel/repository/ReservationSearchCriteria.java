@@ -0,0 +1,25 @@
+package akross.eclipsehotel.repository;
+
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.RoomType;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filters of a reservation search; null fields and an empty status list match everything.
+ * Date windows are inclusive on both ends.
+ */
+public record ReservationSearchCriteria(
+        Long customerId,
+        Long roomId,
+        RoomType roomType,
+        List<ReservationStatus> statuses,
+        LocalDate checkinFrom,
+        LocalDate checkinTo,
+        LocalDate checkoutFrom,
+        LocalDate checkoutTo,
+        ReservationSort sort,
+        Sort.Direction direction) {
+}
@@ -0,0 +1,14 @@
+package akross.eclipsehotel.repository;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.model.Reservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ReservationSearchRepository {
+    List<ReservationDTO> findDtos(Specification<Reservation> specification, ReservationSort sort,
+                                  Sort.Direction direction, Limit limit);
+}
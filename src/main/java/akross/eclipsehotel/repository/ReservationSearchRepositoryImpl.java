@@ -0,0 +1,63 @@
+package akross.eclipsehotel.repository;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.model.Reservation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs reservation specifications as a constructor projection, so a search reads only the
+ * columns of {@link ReservationDTO} and never loads entities into the persistence context.
+ */
+class ReservationSearchRepositoryImpl implements ReservationSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ReservationDTO> findDtos(Specification<Reservation> specification, ReservationSort sort,
+                                         Sort.Direction direction, Limit limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReservationDTO> query = builder.createQuery(ReservationDTO.class);
+        Root<Reservation> root = query.from(Reservation.class);
+        query.select(builder.construct(ReservationDTO.class,
+                root.get("id"),
+                root.get("customer").get("id"),
+                root.get("room").get("id"),
+                root.get("checkin"),
+                root.get("checkout"),
+                root.get("status"),
+                root.get("total")));
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Order> orders = new ArrayList<>(2);
+        if (sort.attribute() != null) {
+            orders.add(order(builder, root.get(sort.attribute()), direction));
+        }
+        orders.add(order(builder, root.get("id"), direction));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    private static Order order(CriteriaBuilder builder, Expression<?> expression, Sort.Direction direction) {
+        return direction.isAscending() ? builder.asc(expression) : builder.desc(expression);
+    }
+}
@@ -0,0 +1,18 @@
+package akross.eclipsehotel.repository;
+
+public enum ReservationSort {
+    ID(null),
+    CHECKIN("checkin"),
+    CHECKOUT("checkout");
+
+    private final String attribute;
+
+    ReservationSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    // Date attribute ordered before the ID, or null when the ID alone is the order.
+    public String attribute() {
+        return attribute;
+    }
+}
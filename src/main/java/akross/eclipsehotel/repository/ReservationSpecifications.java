@@ -0,0 +1,68 @@
+package akross.eclipsehotel.repository;
+
+import akross.eclipsehotel.model.Reservation;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicates of the reservation search. Only the criteria that are set become part of the
+ * WHERE clause, so the database can pick the index that matches the filters actually used.
+ */
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    public static Specification<Reservation> matching(ReservationSearchCriteria criteria) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.customerId() != null) {
+                predicates.add(builder.equal(root.get("customer").get("id"), criteria.customerId()));
+            }
+            if (criteria.roomId() != null) {
+                predicates.add(builder.equal(root.get("room").get("id"), criteria.roomId()));
+            }
+            if (criteria.roomType() != null) {
+                predicates.add(builder.equal(root.join("room").get("type"), criteria.roomType()));
+            }
+            if (criteria.statuses() != null && !criteria.statuses().isEmpty()) {
+                predicates.add(root.get("status").in(criteria.statuses()));
+            }
+            if (criteria.checkinFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("checkin"), criteria.checkinFrom()));
+            }
+            if (criteria.checkinTo() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("checkin"), criteria.checkinTo()));
+            }
+            if (criteria.checkoutFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("checkout"), criteria.checkoutFrom()));
+            }
+            if (criteria.checkoutTo() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("checkout"), criteria.checkoutTo()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Rows after the last one of the previous page in (sort attribute, ID) order.
+    public static Specification<Reservation> after(ReservationSort sort, Sort.Direction direction, LocalDate value, long id) {
+        return (root, query, builder) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idAfter = direction.isAscending() ? builder.greaterThan(idPath, id) : builder.lessThan(idPath, id);
+            if (sort.attribute() == null) {
+                return idAfter;
+            }
+            Path<LocalDate> datePath = root.get(sort.attribute());
+            Predicate dateAfter = direction.isAscending()
+                    ? builder.greaterThan(datePath, value)
+                    : builder.lessThan(datePath, value);
+            return builder.or(dateAfter, builder.and(builder.equal(datePath, value), idAfter));
+        };
+    }
+}
@@ -1,8 +1,49 @@
 package akross.eclipsehotel.repository;
 
+import akross.eclipsehotel.dto.RoomDTO;
 import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
+
+    String SELECT_DTO = "select new akross.eclipsehotel.dto.RoomDTO(r.id, r.number, r.type, r.price) from tb_rooms r ";
+
     boolean existsByNumber(String number);
+
+    @Query("select r.number from tb_rooms r")
+    List<String> findAllNumbers();
+
+    List<Room> findByType(RoomType type);
+
+    @Query(SELECT_DTO + "order by r.id")
+    List<RoomDTO> findAllDto();
+
+    @Query(SELECT_DTO + "where r.type = :type order by r.id")
+    List<RoomDTO> findDtoByType(@Param("type") RoomType type);
+
+    @Query(SELECT_DTO + "where r.id > :after order by r.id")
+    List<RoomDTO> findDtoPage(@Param("after") Long after, Limit limit);
+
+    @Query(SELECT_DTO + "where r.id = :id")
+    Optional<RoomDTO> findDtoById(@Param("id") Long id);
+
+    // Row locks held until the booking transaction ends, so bookings of a room are serialized across instances.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r.id from tb_rooms r where r.id = :id")
+    Optional<Long> lockById(@Param("id") Long id);
+
+    // Ordered by ID so two batches locking overlapping rooms always take the locks in the same order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from tb_rooms r where r.id in :ids order by r.id")
+    List<Room> lockAllById(@Param("ids") Collection<Long> ids);
 }
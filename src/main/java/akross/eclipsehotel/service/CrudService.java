@@ -8,4 +8,4 @@ public interface CrudService<ID, T> {
     T create(T entity);
     T update(ID id, T entity);
     void delete(ID id);
-}
\ No newline at end of file
+}
@@ -1,7 +1,14 @@
 package akross.eclipsehotel.service;
 
+import akross.eclipsehotel.dto.CustomerDTO;
+import akross.eclipsehotel.dto.CustomerReservationDTO;
 import akross.eclipsehotel.model.Customer;
 
-public interface CustomerService extends CrudService<Long, Customer> {
+import java.util.List;
 
+public interface CustomerService extends CrudService<Long, Customer> {
+    List<CustomerDTO> findAllDto();
+    List<CustomerDTO> findDtoPage(Long after, Integer limit);
+    CustomerDTO findDtoById(Long id);
+    List<CustomerReservationDTO> findReservations(Long id, Long after, Integer limit);
 }
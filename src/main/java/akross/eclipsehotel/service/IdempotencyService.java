@@ -0,0 +1,9 @@
+package akross.eclipsehotel.service;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    IdempotentReservation openReservation(String idempotencyKey, ReservationDTO request, Supplier<ReservationDTO> open);
+}
@@ -0,0 +1,6 @@
+package akross.eclipsehotel.service;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+
+public record IdempotentReservation(ReservationDTO reservation, boolean replayed) {
+}
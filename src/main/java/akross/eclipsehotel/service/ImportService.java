@@ -0,0 +1,10 @@
+package akross.eclipsehotel.service;
+
+import akross.eclipsehotel.dto.ImportReportDTO;
+
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportReportDTO importRooms(InputStream input, ImportFormat format);
+    ImportReportDTO importCustomers(InputStream input, ImportFormat format);
+}
@@ -0,0 +1,10 @@
+package akross.eclipsehotel.service;
+
+import akross.eclipsehotel.dto.QuoteDTO;
+import akross.eclipsehotel.dto.QuoteRequestDTO;
+
+import java.util.List;
+
+public interface QuoteService {
+    List<QuoteDTO> quote(QuoteRequestDTO request);
+}
@@ -0,0 +1,8 @@
+package akross.eclipsehotel.service;
+
+import akross.eclipsehotel.dto.OccupancyReportDTO;
+
+public interface ReportService {
+    OccupancyReportDTO getOccupancyReport();
+    void reconcile();
+}
@@ -0,0 +1,18 @@
+package akross.eclipsehotel.service;
+
+import akross.eclipsehotel.model.Reservation;
+
+public record ReservationBatchResult(Reservation reservation, String error) {
+
+    public static ReservationBatchResult success(Reservation reservation) {
+        return new ReservationBatchResult(reservation, null);
+    }
+
+    public static ReservationBatchResult failure(String error) {
+        return new ReservationBatchResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -1,13 +1,23 @@
 package akross.eclipsehotel.service;
 
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.dto.ReservationPageDTO;
 import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.repository.ReservationSearchCriteria;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ReservationService {
     Reservation openReservation(Reservation reservation);
-    List<Reservation> findReservationsBetween(LocalDate start, LocalDate end);
-    List<Reservation> findInUseReservations();
-    Reservation cancelReservation(Long id);
+    List<ReservationBatchResult> openReservations(List<Reservation> reservations);
+    List<ReservationDTO> findReservationsBetween(LocalDate start, LocalDate end);
+    List<ReservationDTO> findReservationsBetween(LocalDate start, LocalDate end, Long after, Integer limit);
+    void streamReservationsBetween(LocalDate start, LocalDate end, Consumer<ReservationDTO> consumer);
+    ReservationPageDTO searchReservations(ReservationSearchCriteria criteria, String cursor, Integer limit);
+    List<ReservationDTO> findInUseReservations();
+    ReservationDTO cancelReservation(Long id);
+    List<ReservationEventDTO> findEvents(Long id);
 }
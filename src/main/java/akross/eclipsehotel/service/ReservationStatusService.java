@@ -0,0 +1,7 @@
+package akross.eclipsehotel.service;
+
+import java.time.LocalDate;
+
+public interface ReservationStatusService {
+    int transitionStatuses(LocalDate today);
+}
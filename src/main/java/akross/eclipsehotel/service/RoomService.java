@@ -1,7 +1,17 @@
 package akross.eclipsehotel.service;
 
+import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.dto.RoomReservationDTO;
 import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
 
-public interface RoomService extends CrudService<Long, Room> {
+import java.time.LocalDate;
+import java.util.List;
 
+public interface RoomService extends CrudService<Long, Room> {
+    List<RoomDTO> findAllDto();
+    List<RoomDTO> findDtoPage(Long after, Integer limit);
+    RoomDTO findDtoById(Long id);
+    List<RoomReservationDTO> findReservations(Long id, Long after, Integer limit);
+    List<RoomDTO> findAvailable(LocalDate checkin, LocalDate checkout, RoomType type);
 }
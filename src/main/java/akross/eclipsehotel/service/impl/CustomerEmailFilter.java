@@ -0,0 +1,93 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the emails already registered, loaded at startup. A negative answer means
+ * no customer has the email, so sign-ups with a new email skip the exists query; a positive
+ * answer may be wrong and is confirmed against the database. Emails are hashed in lower case,
+ * which only adds false positives, and removed or replaced emails stay in the filter until the
+ * next start. Uniqueness itself is enforced by the database constraint, not by this filter.
+ */
+@Component
+public class CustomerEmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerEmailFilter.class);
+
+    private final CustomerRepository customerRepository;
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    public CustomerEmailFilter(CustomerRepository customerRepository,
+                               @Value("${eclipse-hotel.customers.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${eclipse-hotel.customers.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.customerRepository = customerRepository;
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(Long.SIZE, (optimalBits + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact(bitCount / Long.SIZE));
+    }
+
+    @PostConstruct
+    public void load() {
+        List<String> emails = customerRepository.findAllEmails();
+        emails.forEach(this::add);
+        logger.info("Loaded {} customer emails into a filter of {} bits and {} hashes.", emails.size(), bitCount, hashCount);
+    }
+
+    public void add(String email) {
+        long hash = hash(email);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(first + (long) i * second, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String email) {
+        long hash = hash(email);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(first + (long) i * second, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a with the MurmurHash3 finalizer, split into the halves the probe positions come from.
+    private static long hash(String email) {
+        String key = email.toLowerCase(Locale.ROOT);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -1,28 +1,52 @@
 package akross.eclipsehotel.service.impl;
 
+import akross.eclipsehotel.config.CacheConfig;
+import akross.eclipsehotel.config.CatalogVersions;
+import akross.eclipsehotel.dto.CustomerDTO;
+import akross.eclipsehotel.dto.CustomerReservationDTO;
 import akross.eclipsehotel.exception.BusinessException;
 import akross.eclipsehotel.exception.NotFoundException;
 import akross.eclipsehotel.model.Customer;
 import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.ReservationRepository;
 import akross.eclipsehotel.service.CustomerService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 
 import static java.util.Optional.ofNullable;
 
 @Service
+@Timed("eclipsehotel.service")
 public class CustomerServiceImpl implements CustomerService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerServiceImpl.class);
 
     private final CustomerRepository customerRepository;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    private final ReservationRepository reservationRepository;
+
+    private final CustomerEmailFilter customerEmailFilter;
+
+    private final CatalogVersions catalogVersions;
+
+    public CustomerServiceImpl(CustomerRepository customerRepository,
+                               ReservationRepository reservationRepository,
+                               CustomerEmailFilter customerEmailFilter,
+                               CatalogVersions catalogVersions) {
         this.customerRepository = customerRepository;
+        this.reservationRepository = reservationRepository;
+        this.customerEmailFilter = customerEmailFilter;
+        this.catalogVersions = catalogVersions;
     }
 
     @Transactional(readOnly = true)
@@ -36,6 +60,44 @@ public class CustomerServiceImpl implements CustomerService {
         return customers;
     }
 
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findAllDto() {
+        List<CustomerDTO> customers = customerRepository.findAllDto();
+        logger.info("Retrieved {} customers from the database.", customers.size());
+        return customers;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findDtoPage(Long after, Integer limit) {
+        List<CustomerDTO> customers = customerRepository.findDtoPage(PageLimits.after(after), PageLimits.of(limit));
+        logger.info("Retrieved {} customers after ID {}.", customers.size(), after);
+        return customers;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS, key = "#id")
+    @Transactional(readOnly = true)
+    public CustomerDTO findDtoById(Long id) {
+        logger.info("Searching for customer with ID: {}", id);
+        return customerRepository.findDtoById(id).orElseThrow(() -> {
+            logger.error("Customer not found with ID: {}", id);
+            return new NotFoundException("Customer not found with ID: " + id);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerReservationDTO> findReservations(Long id, Long after, Integer limit) {
+        logger.info("Searching for reservations of customer {} after ID {}", id, after);
+        List<CustomerReservationDTO> reservations = reservationRepository.findHistoryOfCustomer(
+                id, PageLimits.after(after), PageLimits.of(limit));
+        // An empty page is the only case where the customer itself has to be looked up.
+        if (reservations.isEmpty() && !customerRepository.existsById(id)) {
+            logger.error("Customer not found with ID: {}", id);
+            throw new NotFoundException("Customer not found with ID: " + id);
+        }
+        logger.info("Retrieved {} reservations of customer {} after ID {}.", reservations.size(), id, after);
+        return reservations;
+    }
+
     @Transactional(readOnly = true)
     public Customer findById(Long id) {
         logger.info("Searching for customer with ID: {}", id);
@@ -66,16 +128,25 @@ public class CustomerServiceImpl implements CustomerService {
             return new BusinessException("Customer phone must not be null.");
         });
 
-        if (customerRepository.existsByEmail(customerToCreate.getEmail())) {
+        // Only emails the filter may have seen pay for the exists query; the constraint catches the rest.
+        if (customerEmailFilter.mightContain(customerToCreate.getEmail())
+                && customerRepository.existsByEmail(customerToCreate.getEmail())) {
             logger.error("Customer with email {} already exists.", customerToCreate.getEmail());
             throw new BusinessException("This email already exists.");
         }
 
-        Customer createdCustomer = customerRepository.save(customerToCreate);
+        Customer createdCustomer;
+        try {
+            createdCustomer = customerRepository.saveAndFlush(customerToCreate);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, customerToCreate);
+        }
+        customerEmailFilter.add(createdCustomer.getEmail());
         logger.info("Customer created successfully with ID: {}", createdCustomer.getId());
         return createdCustomer;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS, key = "#id")
     @Transactional
     public Customer update(Long id, Customer customerToUpdate) {
         logger.info("Updating customer with ID: {}", id);
@@ -91,16 +162,38 @@ public class CustomerServiceImpl implements CustomerService {
         dbCustomer.setPhone(customerToUpdate.getPhone());
         dbCustomer.setCreatedAt(customerToUpdate.getCreatedAt());
 
-        Customer updatedCustomer = customerRepository.save(dbCustomer);
+        Customer updatedCustomer;
+        try {
+            updatedCustomer = customerRepository.saveAndFlush(dbCustomer);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Customer with ID: {} was changed by another request while being updated.", id);
+            throw new BusinessException("The customer was changed by another request. Please try again.");
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, dbCustomer);
+        }
+        customerEmailFilter.add(updatedCustomer.getEmail());
+        TransactionCallbacks.afterCommitAndEvictions(() -> catalogVersions.customerChanged(id));
         logger.info("Customer with ID: {} updated successfully.", id);
         return updatedCustomer;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS, key = "#id")
     @Transactional
     public void delete(Long id) {
         logger.info("Deleting customer with ID: {}", id);
         Customer dbCustomer = findById(id);
         customerRepository.delete(dbCustomer);
+        TransactionCallbacks.afterCommitAndEvictions(() -> catalogVersions.customerChanged(id));
         logger.info("Customer with ID: {} deleted successfully.", id);
     }
+
+    private BusinessException translate(DataIntegrityViolationException e, Customer customer) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (cause.contains(Customer.EMAIL_CONSTRAINT)) {
+            logger.error("Customer with email {} already exists.", customer.getEmail());
+            return new BusinessException("This email already exists.");
+        }
+        logger.error("Customer violates a database constraint: {}", e.getMostSpecificCause().getMessage());
+        return new BusinessException("Customer data violates a database constraint.");
+    }
 }
@@ -0,0 +1,211 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.exception.IdempotencyConflictException;
+import akross.eclipsehotel.model.IdempotencyRecord;
+import akross.eclipsehotel.repository.IdempotencyRecordRepository;
+import akross.eclipsehotel.service.IdempotencyService;
+import akross.eclipsehotel.service.IdempotentReservation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the reservation created for each Idempotency-Key so a retried POST gets the original
+ * response back from memory without reaching the booking path. Keys live in a bounded cache that
+ * expires them after {@code eclipse-hotel.idempotency.time-to-live}; a retry that arrives while the
+ * first request is still running waits for its outcome instead of booking again. A failed request
+ * forgets its key so the client can retry it. With {@code eclipse-hotel.idempotency.persistent}
+ * the keys are also written to tb_idempotency_keys, in the same transaction as the reservation, which
+ * covers restarts and other nodes: when two nodes race for a key, the primary key lets only one of
+ * them commit and the other replays its reservation.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final RoomLocks roomLocks;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<String, CompletableFuture<StoredReservation>> requests;
+
+    private final Duration timeToLive;
+
+    private final boolean persistent;
+
+    private final long waitTimeoutMillis;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  RoomLocks roomLocks,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${eclipse-hotel.idempotency.maximum-size:100000}") long maximumSize,
+                                  @Value("${eclipse-hotel.idempotency.time-to-live:24h}") Duration timeToLive,
+                                  @Value("${eclipse-hotel.idempotency.persistent:false}") boolean persistent,
+                                  @Value("${eclipse-hotel.booking.lock-timeout-ms:5000}") long waitTimeoutMillis) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.roomLocks = roomLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.timeToLive = timeToLive;
+        this.persistent = persistent;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public IdempotentReservation openReservation(String idempotencyKey, ReservationDTO request, Supplier<ReservationDTO> open) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            logger.error("Invalid Idempotency-Key of length {}.", idempotencyKey.length());
+            throw new BusinessException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        String fingerprint = fingerprint(request);
+
+        CompletableFuture<StoredReservation> pending = new CompletableFuture<>();
+        CompletableFuture<StoredReservation> existing = requests.asMap().putIfAbsent(idempotencyKey, pending);
+        if (existing == null && persistent && loadStored(idempotencyKey, pending)) {
+            existing = pending;
+        }
+        if (existing != null) {
+            return replay(idempotencyKey, existing, fingerprint);
+        }
+
+        ReservationDTO reservation;
+        try {
+            reservation = persistent ? openAndStore(idempotencyKey, request, fingerprint, open) : open.get();
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed this key first and our reservation was rolled back with the key.
+            if (loadStored(idempotencyKey, pending)) {
+                logger.info("Idempotency-Key {} was claimed by another node.", idempotencyKey);
+                return replay(idempotencyKey, pending, fingerprint);
+            }
+            requests.asMap().remove(idempotencyKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            // Nothing was committed, so the client may retry with the same key.
+            requests.asMap().remove(idempotencyKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        pending.complete(new StoredReservation(fingerprint, reservation));
+        return new IdempotentReservation(reservation, false);
+    }
+
+    @Scheduled(cron = "${eclipse-hotel.idempotency.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        if (persistent) {
+            int purged = idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(timeToLive));
+            logger.info("Purged {} expired idempotency keys.", purged);
+        }
+    }
+
+    // The room lock is taken before the transaction, as for any booking, and is reentrant for the booking itself.
+    private ReservationDTO openAndStore(String idempotencyKey, ReservationDTO request, String fingerprint,
+                                        Supplier<ReservationDTO> open) {
+        List<Long> roomIds = request.roomId() == null ? List.of() : List.of(request.roomId());
+        return roomLocks.callWithLocks(roomIds, () -> transactionTemplate.execute(status -> {
+            idempotencyRecordRepository.deleteExpired(idempotencyKey, Instant.now().minus(timeToLive));
+            ReservationDTO reservation = open.get();
+            idempotencyRecordRepository.saveAndFlush(toRecord(idempotencyKey, fingerprint, reservation));
+            return reservation;
+        }));
+    }
+
+    // Read-write so the lookup goes to the primary: a replica may not have the key another node just committed.
+    private boolean loadStored(String idempotencyKey, CompletableFuture<StoredReservation> pending) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> idempotencyRecordRepository.findById(idempotencyKey)
+                .filter(record -> record.getCreatedAt().isAfter(Instant.now().minus(timeToLive)))
+                .map(record -> pending.complete(new StoredReservation(record.getRequestFingerprint(), toDto(record))))
+                .orElse(false)));
+    }
+
+    private IdempotentReservation replay(String idempotencyKey, CompletableFuture<StoredReservation> existing, String fingerprint) {
+        StoredReservation stored;
+        try {
+            stored = existing.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.error("Request with Idempotency-Key {} is still being processed.", idempotencyKey);
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for the request with this Idempotency-Key.");
+        }
+
+        if (!stored.fingerprint().equals(fingerprint)) {
+            logger.error("Idempotency-Key {} was already used for a different reservation.", idempotencyKey);
+            throw new IdempotencyConflictException("This Idempotency-Key was already used for a different reservation.");
+        }
+        logger.info("Replaying reservation {} for Idempotency-Key {}.", stored.reservation().id(), idempotencyKey);
+        return new IdempotentReservation(stored.reservation(), true);
+    }
+
+    // SHA-256 of the fields that define a reservation, so two different requests never share a fingerprint.
+    static String fingerprint(ReservationDTO request) {
+        String canonical = request.customerId() + "|" + request.roomId() + "|" + request.checkin() + "|"
+                + request.checkout() + "|" + request.status();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static IdempotencyRecord toRecord(String idempotencyKey, String fingerprint, ReservationDTO reservation) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestFingerprint(fingerprint);
+        record.setReservationId(reservation.id());
+        record.setCustomerId(reservation.customerId());
+        record.setRoomId(reservation.roomId());
+        record.setCheckin(reservation.checkin());
+        record.setCheckout(reservation.checkout());
+        record.setStatus(reservation.status());
+        record.setTotal(reservation.total());
+        record.setCreatedAt(Instant.now());
+        return record;
+    }
+
+    private static ReservationDTO toDto(IdempotencyRecord record) {
+        return new ReservationDTO(record.getReservationId(), record.getCustomerId(), record.getRoomId(),
+                record.getCheckin(), record.getCheckout(), record.getStatus(), record.getTotal());
+    }
+
+    private record StoredReservation(String fingerprint, ReservationDTO reservation) {
+    }
+}
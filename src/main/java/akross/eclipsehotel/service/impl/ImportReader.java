@@ -0,0 +1,139 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.service.ImportFormat;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads import records one at a time from CSV with a header row or from NDJSON, so only the
+ * current record is ever held in memory. A record that cannot be parsed comes back with an
+ * error and reading goes on with the next one; input that cannot be read past at all ends
+ * the import with an {@link IOException}.
+ */
+abstract class ImportReader implements Closeable {
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build();
+
+    record ImportRecord(long number, Map<String, String> fields, String error) {
+    }
+
+    static ImportReader open(InputStream input, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(input);
+            case NDJSON -> new Ndjson(input, objectMapper);
+        };
+    }
+
+    // Returns null once the input is exhausted.
+    abstract ImportRecord next() throws IOException;
+
+    private static final class Csv extends ImportReader {
+
+        private final MappingIterator<Map<String, String>> rows;
+
+        private long number;
+
+        private JsonLocation lastFailure;
+
+        Csv(InputStream input) throws IOException {
+            this.rows = CSV_MAPPER.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(input);
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            try {
+                if (!rows.hasNextValue()) {
+                    return null;
+                }
+                Map<String, String> fields = rows.nextValue();
+                return new ImportRecord(++number, fields, null);
+            } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+                // A row that fails twice at the same position cannot be skipped.
+                JsonLocation location = rows.getCurrentLocation();
+                if (location != null && location.equals(lastFailure)) {
+                    throw new IOException("Unreadable CSV after record " + number + ": " + message(e), e);
+                }
+                lastFailure = location;
+                return new ImportRecord(++number, Map.of(), "Malformed record: " + message(e));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+
+    private static final class Ndjson extends ImportReader {
+
+        private final BufferedReader lines;
+
+        private final ObjectMapper objectMapper;
+
+        private long number;
+
+        Ndjson(InputStream input, ObjectMapper objectMapper) {
+            this.lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return null;
+                }
+                number++;
+            } while (line.isBlank());
+
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) {
+                    return new ImportRecord(number, Map.of(), "Record must be a JSON object.");
+                }
+                Map<String, String> fields = new HashMap<>();
+                node.fields().forEachRemaining(field ->
+                        fields.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+                return new ImportRecord(number, fields, null);
+            } catch (JsonProcessingException e) {
+                return new ImportRecord(number, Map.of(), "Malformed record: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+        }
+    }
+
+    private static String message(Exception e) {
+        if (e instanceof RuntimeJsonMappingException && e.getCause() instanceof JsonMappingException cause) {
+            return cause.getOriginalMessage();
+        }
+        return e instanceof JsonProcessingException processing ? processing.getOriginalMessage() : e.getMessage();
+    }
+}
@@ -0,0 +1,271 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.config.CacheConfig;
+import akross.eclipsehotel.config.CatalogVersions;
+import akross.eclipsehotel.dto.ImportRejectDTO;
+import akross.eclipsehotel.dto.ImportReportDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.RoomRepository;
+import akross.eclipsehotel.service.ImportFormat;
+import akross.eclipsehotel.service.ImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams rooms or customers from CSV or NDJSON into the database. Records are parsed one at a
+ * time, checked against the room numbers or emails already stored (loaded once per import) and
+ * against earlier records of the same file, and inserted in transactions of
+ * {@code eclipse-hotel.import.batch-size} records, which Hibernate sends as JDBC batches. A batch
+ * the database refuses is retried record by record so only the offending records are rejected.
+ * The report keeps the first {@code eclipse-hotel.import.max-reported-rejects} rejects.
+ */
+@Service
+@Timed("eclipsehotel.service")
+public class ImportServiceImpl implements ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+
+    private final RoomRepository roomRepository;
+
+    private final CustomerRepository customerRepository;
+
+    private final OccupancyCounters occupancyCounters;
+
+    private final CustomerEmailFilter customerEmailFilter;
+
+    private final CacheManager cacheManager;
+
+    private final CatalogVersions catalogVersions;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int maxReportedRejects;
+
+    public ImportServiceImpl(RoomRepository roomRepository,
+                             CustomerRepository customerRepository,
+                             OccupancyCounters occupancyCounters,
+                             CustomerEmailFilter customerEmailFilter,
+                             CacheManager cacheManager,
+                             CatalogVersions catalogVersions,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${eclipse-hotel.import.batch-size:500}") int batchSize,
+                             @Value("${eclipse-hotel.import.max-reported-rejects:1000}") int maxReportedRejects) {
+        this.roomRepository = roomRepository;
+        this.customerRepository = customerRepository;
+        this.occupancyCounters = occupancyCounters;
+        this.customerEmailFilter = customerEmailFilter;
+        this.cacheManager = cacheManager;
+        this.catalogVersions = catalogVersions;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedRejects = maxReportedRejects;
+    }
+
+    public ImportReportDTO importRooms(InputStream input, ImportFormat format) {
+        return run(input, format, new Target<>(
+                "rooms",
+                ImportServiceImpl::toRoom,
+                Room::getNumber,
+                roomRepository,
+                room -> room.setId(null),
+                rooms -> {
+                    occupancyCounters.roomsCreated(rooms.size());
+                    Cache roomLists = cacheManager.getCache(CacheConfig.ROOM_LISTS);
+                    if (roomLists != null) {
+                        roomLists.clear();
+                    }
+                    catalogVersions.roomsAdded();
+                }
+        ), new HashSet<>(roomRepository.findAllNumbers()));
+    }
+
+    public ImportReportDTO importCustomers(InputStream input, ImportFormat format) {
+        return run(input, format, new Target<>(
+                "customers",
+                ImportServiceImpl::toCustomer,
+                Customer::getEmail,
+                customerRepository,
+                customer -> customer.setId(null),
+                customers -> customers.forEach(customer -> customerEmailFilter.add(customer.getEmail()))
+        ), new HashSet<>(customerRepository.findAllEmails()));
+    }
+
+    private <T> ImportReportDTO run(InputStream input, ImportFormat format, Target<T> target, Set<String> knownKeys) {
+        logger.info("Importing {} from {} against {} existing keys.", target.resource(), format, knownKeys.size());
+        Progress progress = new Progress();
+        List<Pending<T>> batch = new ArrayList<>(batchSize);
+        boolean completed = true;
+
+        try (ImportReader reader = ImportReader.open(input, format, objectMapper)) {
+            ImportReader.ImportRecord record;
+            while ((record = reader.next()) != null) {
+                progress.read++;
+                if (record.error() != null) {
+                    progress.reject(record.number(), null, record.error());
+                    continue;
+                }
+                T entity;
+                try {
+                    entity = target.parse().apply(record.fields());
+                } catch (BusinessException e) {
+                    progress.reject(record.number(), null, e.getMessage());
+                    continue;
+                }
+                String key = target.key().apply(entity);
+                if (!knownKeys.add(key)) {
+                    progress.reject(record.number(), key, "Already exists.");
+                    continue;
+                }
+                batch.add(new Pending<>(record.number(), key, entity));
+                if (batch.size() == batchSize) {
+                    insert(target, batch, progress);
+                }
+            }
+        } catch (IOException e) {
+            completed = false;
+            logger.error("Stopped importing {} after {} records: {}", target.resource(), progress.read, e.getMessage());
+            progress.reject(progress.read + 1, null, e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            insert(target, batch, progress);
+        }
+
+        logger.info("Import of {} done: {} read, {} imported, {} rejected.",
+                target.resource(), progress.read, progress.imported, progress.rejected);
+        return new ImportReportDTO(target.resource(), progress.read, progress.imported, progress.rejected,
+                completed, progress.rejects);
+    }
+
+    private <T> void insert(Target<T> target, List<Pending<T>> batch, Progress progress) {
+        List<T> entities = batch.stream().map(Pending::entity).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> target.repository().saveAll(entities));
+            progress.imported += entities.size();
+            target.imported().accept(entities);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batch of {} {} refused by the database, retrying one by one: {}",
+                    entities.size(), target.resource(), e.getMostSpecificCause().getMessage());
+            for (Pending<T> pending : batch) {
+                target.clearId().accept(pending.entity());
+                try {
+                    transactionTemplate.executeWithoutResult(status -> target.repository().save(pending.entity()));
+                    progress.imported++;
+                    target.imported().accept(List.of(pending.entity()));
+                } catch (DataIntegrityViolationException single) {
+                    progress.reject(pending.number(), pending.key(),
+                            "Refused by the database: " + single.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        batch.clear();
+        logger.info("Imported {} {} so far, {} rejected.", progress.imported, target.resource(), progress.rejected);
+    }
+
+    private static Room toRoom(Map<String, String> fields) {
+        Room room = new Room();
+        room.setNumber(required(fields, "number", 50));
+        String type = required(fields, "type", 50);
+        try {
+            room.setType(RoomType.valueOf(type));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid room type: " + type);
+        }
+        String price = required(fields, "price", 20);
+        try {
+            room.setPrice(new BigDecimal(price));
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid room price: " + price);
+        }
+        if (room.getPrice().signum() < 0 || room.getPrice().scale() > 2 || room.getPrice().precision() - room.getPrice().scale() > 8) {
+            throw new BusinessException("Invalid room price: " + price);
+        }
+        return room;
+    }
+
+    private static Customer toCustomer(Map<String, String> fields) {
+        Customer customer = new Customer();
+        customer.setName(required(fields, "name", 50));
+        customer.setEmail(required(fields, "email", 100));
+        customer.setPhone(required(fields, "phone", 50));
+        String createdAt = fields.get("createdAt");
+        try {
+            customer.setCreatedAt(createdAt == null || createdAt.isBlank() ? LocalDate.now() : LocalDate.parse(createdAt));
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Invalid customer createdAt: " + createdAt);
+        }
+        return customer;
+    }
+
+    private static String required(Map<String, String> fields, String name, int maxLength) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new BusinessException("Field " + name + " must not be blank.");
+        }
+        if (value.length() > maxLength) {
+            throw new BusinessException("Field " + name + " must not be longer than " + maxLength + " characters.");
+        }
+        return value;
+    }
+
+    private record Target<T>(String resource,
+                             Function<Map<String, String>, T> parse,
+                             Function<T, String> key,
+                             JpaRepository<T, Long> repository,
+                             Consumer<T> clearId,
+                             Consumer<List<T>> imported) {
+    }
+
+    private record Pending<T>(long number, String key, T entity) {
+    }
+
+    private final class Progress {
+
+        private final List<ImportRejectDTO> rejects = new ArrayList<>();
+
+        private long read;
+
+        private long imported;
+
+        private long rejected;
+
+        void reject(long number, String key, String reason) {
+            rejected++;
+            if (rejects.size() < maxReportedRejects) {
+                rejects.add(new ImportRejectDTO(number, key, reason));
+            }
+        }
+    }
+}
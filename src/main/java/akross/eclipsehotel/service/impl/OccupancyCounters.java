@@ -0,0 +1,288 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.RankingEntryDTO;
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.repository.ReservationEventRepository;
+import akross.eclipsehotel.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Projections of the reservation event log behind the occupancy reports: reservations per status,
+ * open reservations, stays and cancellations per room and stays per customer. They are kept in
+ * memory and moved by {@link ReservationEventLog} once the transaction that appended the events
+ * commits. Applying an event is a pair of additions, so replay order does not matter.
+ * {@link #load()} replays the log at startup and periodically into fresh counters and swaps them
+ * in. Events applied while the replay runs are recorded and, unless the replay read them, added to
+ * the new counters at the swap; events the replay read before their commit callback ran are skipped
+ * by that callback. So a reservation committed during a reload is counted exactly once. Rooms added
+ * or removed during a reload are only corrected by the next one.
+ */
+@Component
+public class OccupancyCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyCounters.class);
+
+    private static final List<ReservationStatus> STAY_STATUSES = List.of(ReservationStatus.IN_USE, ReservationStatus.FINISHED);
+
+    private static final int REPLAY_PAGE_SIZE = 10_000;
+
+    private final ReservationEventRepository reservationEventRepository;
+
+    private final RoomRepository roomRepository;
+
+    // Appliers share the read lock; a reload takes the write lock to start recording and to swap.
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // Events appended by transactions that have not been applied yet. Committed ones may already be in a replay.
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    // In-flight events the current counters were replayed with, skipped when their commit callback applies them.
+    private final Set<Long> replayed = ConcurrentHashMap.newKeySet();
+
+    private volatile Counts counts = new Counts(0);
+
+    // Events applied while a replay runs, by event ID; null otherwise.
+    private volatile Map<Long, AppliedEvent> applied;
+
+    public OccupancyCounters(ReservationEventRepository reservationEventRepository, RoomRepository roomRepository) {
+        this.reservationEventRepository = reservationEventRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    public void load() {
+        load(() -> { });
+    }
+
+    // Replays the whole event log into fresh counters and swaps them in; beforeSwap runs between the two.
+    synchronized void load(Runnable beforeSwap) {
+        Map<Long, AppliedEvent> appliedDuringReplay = new ConcurrentHashMap<>();
+        swapLock.writeLock().lock();
+        try {
+            applied = appliedDuringReplay;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            Counts loaded = new Counts(roomRepository.count());
+            // Replayed events that were applied during the replay or are still waiting to be.
+            Set<Long> replayedLate = new HashSet<>();
+            long events = 0;
+            long after = 0;
+            List<ReservationEventDTO> page;
+            do {
+                page = reservationEventRepository.findDtoAfter(after, Limit.of(REPLAY_PAGE_SIZE));
+                for (ReservationEventDTO event : page) {
+                    loaded.apply(event.roomId(), event.customerId(), event.previousStatus(), event.status());
+                    // apply() records an event before it leaves inFlight, so a late one is found in one or the other.
+                    if (inFlight.contains(event.id()) || appliedDuringReplay.containsKey(event.id())) {
+                        replayedLate.add(event.id());
+                    }
+                }
+                events += page.size();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == REPLAY_PAGE_SIZE);
+            beforeSwap.run();
+
+            swapLock.writeLock().lock();
+            try {
+                long caughtUp = 0;
+                for (AppliedEvent event : appliedDuringReplay.values()) {
+                    if (!replayedLate.contains(event.eventId())) {
+                        loaded.apply(event.roomId(), event.customerId(), event.previousStatus(), event.status());
+                        caughtUp++;
+                    }
+                }
+                for (Long eventId : replayedLate) {
+                    if (!appliedDuringReplay.containsKey(eventId)) {
+                        replayed.add(eventId);
+                    }
+                }
+                counts = loaded;
+                applied = null;
+                logger.info("Replayed {} reservation events into occupancy counters, plus {} committed during the replay: {} rooms, {} open reservations.",
+                        events, caughtUp, loaded.totalRooms.get(), openReservations());
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            applied = null;
+        }
+    }
+
+    // Called when the events are appended, before their transaction commits.
+    public void pending(List<Long> eventIds) {
+        inFlight.addAll(eventIds);
+    }
+
+    public void discard(List<Long> eventIds) {
+        eventIds.forEach(inFlight::remove);
+    }
+
+    // A null previous status is a reservation being opened.
+    public void apply(Long eventId, Long roomId, Long customerId, ReservationStatus previousStatus, ReservationStatus status) {
+        swapLock.readLock().lock();
+        try {
+            if (!replayed.remove(eventId)) {
+                counts.apply(roomId, customerId, previousStatus, status);
+                Map<Long, AppliedEvent> recording = applied;
+                if (recording != null) {
+                    recording.put(eventId, new AppliedEvent(eventId, roomId, customerId, previousStatus, status));
+                }
+            }
+            inFlight.remove(eventId);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void roomCreated() {
+        roomsCreated(1);
+    }
+
+    public void roomsCreated(long count) {
+        counts.totalRooms.addAndGet(count);
+    }
+
+    public void roomDeleted(Long roomId) {
+        Counts current = counts;
+        current.totalRooms.decrementAndGet();
+        current.rooms.remove(roomId);
+    }
+
+    public long count(ReservationStatus status) {
+        return counts.statuses.get(status.ordinal());
+    }
+
+    public long openReservations() {
+        return count(ReservationStatus.SCHEDULED) + count(ReservationStatus.IN_USE);
+    }
+
+    public long totalRooms() {
+        return counts.totalRooms.get();
+    }
+
+    public long vacantRooms() {
+        Counts current = counts;
+        return Math.max(0, current.totalRooms.get() - current.roomsWithOpenReservations.get());
+    }
+
+    public List<RankingEntryDTO> mostOccupiedRooms(int limit) {
+        return top(counts.rooms, limit, room -> room.stays.get());
+    }
+
+    public List<RankingEntryDTO> mostCanceledRooms(int limit) {
+        return top(counts.rooms, limit, room -> room.cancellations.get());
+    }
+
+    public List<RankingEntryDTO> topCustomers(int limit) {
+        return top(counts.customers, limit, AtomicLong::get);
+    }
+
+    // Scans one entry per room or customer, never the reservations themselves.
+    private static <T> List<RankingEntryDTO> top(Map<Long, T> entries, int limit, ToLongFunction<T> counter) {
+        Comparator<RankingEntryDTO> ranking = Comparator.comparingLong(RankingEntryDTO::count)
+                .thenComparing(RankingEntryDTO::id, Comparator.reverseOrder());
+        PriorityQueue<RankingEntryDTO> best = new PriorityQueue<>(ranking);
+        entries.forEach((id, entry) -> {
+            long count = counter.applyAsLong(entry);
+            if (count > 0) {
+                best.add(new RankingEntryDTO(id, null, count));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        });
+        List<RankingEntryDTO> result = new ArrayList<>(best);
+        result.sort(ranking.reversed());
+        return result;
+    }
+
+    private static boolean isStay(ReservationStatus status) {
+        return STAY_STATUSES.contains(status);
+    }
+
+    private static final class Counts {
+
+        private final AtomicLongArray statuses = new AtomicLongArray(ReservationStatus.values().length);
+
+        private final ConcurrentMap<Long, RoomCounts> rooms = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Long, AtomicLong> customers = new ConcurrentHashMap<>();
+
+        private final AtomicLong totalRooms;
+
+        private final AtomicLong roomsWithOpenReservations = new AtomicLong();
+
+        Counts(long totalRooms) {
+            this.totalRooms = new AtomicLong(totalRooms);
+        }
+
+        void add(Long roomId, Long customerId, ReservationStatus status, long delta) {
+            statuses.addAndGet(status.ordinal(), delta);
+            RoomCounts room = rooms.computeIfAbsent(roomId, id -> new RoomCounts());
+            if (RoomAvailabilityIndex.isOccupied(status)) {
+                long open = room.open.addAndGet(delta);
+                long before = open - delta;
+                if (before <= 0 && open > 0) {
+                    roomsWithOpenReservations.incrementAndGet();
+                } else if (before > 0 && open <= 0) {
+                    roomsWithOpenReservations.decrementAndGet();
+                }
+            }
+            if (status == ReservationStatus.CANCELED) {
+                room.cancellations.addAndGet(delta);
+            }
+            if (isStay(status)) {
+                room.stays.addAndGet(delta);
+                if (customerId != null) {
+                    customerStays(customerId).addAndGet(delta);
+                }
+            }
+        }
+
+        void apply(Long roomId, Long customerId, ReservationStatus previousStatus, ReservationStatus status) {
+            if (previousStatus != null) {
+                add(roomId, customerId, previousStatus, -1);
+            }
+            add(roomId, customerId, status, 1);
+        }
+
+        AtomicLong customerStays(Long customerId) {
+            return customers.computeIfAbsent(customerId, id -> new AtomicLong());
+        }
+    }
+
+    private record AppliedEvent(Long eventId, Long roomId, Long customerId,
+                                ReservationStatus previousStatus, ReservationStatus status) {
+    }
+
+    private static final class RoomCounts {
+
+        private final AtomicLong open = new AtomicLong();
+
+        private final AtomicLong stays = new AtomicLong();
+
+        private final AtomicLong cancellations = new AtomicLong();
+    }
+}
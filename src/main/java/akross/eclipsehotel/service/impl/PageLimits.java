@@ -0,0 +1,27 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.exception.BusinessException;
+import org.springframework.data.domain.Limit;
+
+final class PageLimits {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private PageLimits() {
+    }
+
+    static Limit of(Integer limit) {
+        if (limit == null) {
+            return Limit.of(DEFAULT_LIMIT);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessException("Page limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        return Limit.of(limit);
+    }
+
+    static long after(Long after) {
+        return after == null ? 0L : after;
+    }
+}
@@ -0,0 +1,115 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.QuoteDTO;
+import akross.eclipsehotel.dto.QuotePeriodDTO;
+import akross.eclipsehotel.dto.QuoteRequestDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.exception.NotFoundException;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.repository.RoomRepository;
+import akross.eclipsehotel.service.QuoteService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Optional.ofNullable;
+
+@Service
+@Timed("eclipsehotel.service")
+public class QuoteServiceImpl implements QuoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteServiceImpl.class);
+
+    private static final int MAX_QUOTES = 10_000;
+
+    private final RoomRepository roomRepository;
+
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private final RateCalendar rateCalendar;
+
+    public QuoteServiceImpl(RoomRepository roomRepository,
+                            RoomAvailabilityIndex roomAvailabilityIndex,
+                            RateCalendar rateCalendar) {
+        this.roomRepository = roomRepository;
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
+        this.rateCalendar = rateCalendar;
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuoteDTO> quote(QuoteRequestDTO request) {
+        validate(request);
+        Set<Long> roomIds = new LinkedHashSet<>(request.roomIds());
+        logger.info("Quoting {} rooms for {} periods.", roomIds.size(), request.periods().size());
+
+        Map<Long, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        List<QuoteDTO> quotes = new ArrayList<>(roomIds.size() * request.periods().size());
+        for (Long roomId : roomIds) {
+            Room room = rooms.get(roomId);
+            if (room == null) {
+                logger.error("Room not found with ID: {}", roomId);
+                throw new NotFoundException("Room not found with ID: " + roomId);
+            }
+            long nightlyCents = RateCalendar.toCents(room.getPrice());
+            for (QuotePeriodDTO period : request.periods()) {
+                long totalCents = rateCalendar.totalCents(room.getType(), nightlyCents, period.checkin(), period.checkout());
+                quotes.add(new QuoteDTO(
+                        roomId,
+                        period.checkin(),
+                        period.checkout(),
+                        ChronoUnit.DAYS.between(period.checkin(), period.checkout()),
+                        RateCalendar.fromCents(totalCents),
+                        roomAvailabilityIndex.isAvailable(roomId, period.checkin(), period.checkout())
+                ));
+            }
+        }
+        logger.info("Computed {} quotes.", quotes.size());
+        return quotes;
+    }
+
+    private void validate(QuoteRequestDTO request) {
+        ofNullable(request).orElseThrow(() -> {
+            logger.error("Quote request must not be null.");
+            return new BusinessException("Quote request must not be null.");
+        });
+        if (request.roomIds() == null || request.roomIds().isEmpty() || request.roomIds().contains(null)) {
+            logger.error("Quote request must list at least one room ID and no null IDs.");
+            throw new BusinessException("Quote request must list at least one room ID and no null IDs.");
+        }
+        if (request.periods() == null || request.periods().isEmpty()) {
+            logger.error("Quote request must list at least one period.");
+            throw new BusinessException("Quote request must list at least one period.");
+        }
+        if ((long) request.roomIds().size() * request.periods().size() > MAX_QUOTES) {
+            logger.error("Quote request of {} rooms and {} periods exceeds the limit of {} quotes.",
+                    request.roomIds().size(), request.periods().size(), MAX_QUOTES);
+            throw new BusinessException("A quote request must not produce more than " + MAX_QUOTES + " quotes.");
+        }
+        for (QuotePeriodDTO period : request.periods()) {
+            if (period == null || period.checkin() == null || period.checkout() == null) {
+                logger.error("Quote periods must have a check-in and a check-out date.");
+                throw new BusinessException("Quote periods must have a check-in and a check-out date.");
+            }
+            if (period.checkin().isAfter(period.checkout())) {
+                logger.error("Check-in date must be before or on the same day as the check-out date.");
+                throw new BusinessException("Check-in date must be before or on the same day as the check-out date.");
+            }
+            if (ChronoUnit.DAYS.between(period.checkin(), period.checkout()) > RateCalendar.MAX_NIGHTS) {
+                logger.error("Quote period from {} to {} exceeds the limit of {} nights.", period.checkin(), period.checkout(), RateCalendar.MAX_NIGHTS);
+                throw new BusinessException("A quote period must not be longer than " + RateCalendar.MAX_NIGHTS + " nights.");
+            }
+        }
+    }
+}
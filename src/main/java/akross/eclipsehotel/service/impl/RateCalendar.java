@@ -0,0 +1,174 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.config.PricingProperties;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Nightly rate factors for every room type over the next {@code eclipse-hotel.pricing.calendar-days},
+ * stored as running sums of basis points so the factor of any stay inside the calendar is one
+ * subtraction. A stay costs the room's base price in cents times that factor, rounded once, minus
+ * the best length-of-stay discount. Stays outside the calendar walk the same rules night by night.
+ * The calendar is rebuilt every midnight so it keeps starting today. Callers reject stays longer than
+ * {@link #MAX_NIGHTS}, which bounds the night-by-night walk.
+ */
+@Component
+public class RateCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateCalendar.class);
+
+    public static final int MAX_NIGHTS = 365;
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final int calendarDays;
+
+    private final long[] roomTypeAdjustments = new long[RoomType.values().length];
+
+    private final List<SeasonRule> seasons;
+
+    private final List<DiscountRule> discounts;
+
+    private volatile Calendar calendar;
+
+    public RateCalendar(PricingProperties properties) {
+        if (properties.calendarDays() <= 0) {
+            throw new IllegalArgumentException("eclipse-hotel.pricing.calendar-days must be positive.");
+        }
+        this.calendarDays = properties.calendarDays();
+        properties.roomTypeAdjustments().forEach((type, adjustment) ->
+                roomTypeAdjustments[type.ordinal()] = adjustment * 100L);
+        this.seasons = properties.seasons().stream()
+                .map(SeasonRule::of)
+                .toList();
+        this.discounts = properties.lengthOfStayDiscounts().stream()
+                .map(DiscountRule::of)
+                .sorted(Comparator.comparingInt(DiscountRule::minNights).reversed())
+                .toList();
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "${eclipse-hotel.pricing.rebuild-cron:0 0 0 * * *}")
+    public void rebuild() {
+        LocalDate firstDay = LocalDate.now();
+        RoomType[] types = RoomType.values();
+        long[][] sums = new long[types.length][calendarDays + 1];
+        for (int day = 0; day < calendarDays; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            for (RoomType type : types) {
+                long[] typeSums = sums[type.ordinal()];
+                typeSums[day + 1] = typeSums[day] + factor(type, date);
+            }
+        }
+        calendar = new Calendar(firstDay.toEpochDay(), sums);
+        logger.info("Built rate calendar for {} room types from {} over {} days.", types.length, firstDay, calendarDays);
+    }
+
+    public long totalCents(Room room, LocalDate checkin, LocalDate checkout) {
+        return totalCents(room.getType(), toCents(room.getPrice()), checkin, checkout);
+    }
+
+    public long totalCents(RoomType type, long nightlyCents, LocalDate checkin, LocalDate checkout) {
+        long from = checkin.toEpochDay();
+        long to = checkout.toEpochDay();
+        long nights = to - from;
+        if (nights <= 0) {
+            return 0;
+        }
+
+        Calendar current = calendar;
+        long factor;
+        if (from >= current.firstDay() && to - current.firstDay() <= calendarDays) {
+            long[] sums = current.sums()[type.ordinal()];
+            factor = sums[(int) (to - current.firstDay())] - sums[(int) (from - current.firstDay())];
+        } else {
+            factor = 0;
+            for (long day = from; day < to; day++) {
+                factor += factor(type, LocalDate.ofEpochDay(day));
+            }
+        }
+
+        long gross = divideRounded(Math.multiplyExact(nightlyCents, factor));
+        return divideRounded(gross * (BASIS_POINTS - discount(nights)));
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Adjustments of overlapping seasons add up; a night never costs less than nothing.
+    private long factor(RoomType type, LocalDate date) {
+        long factor = BASIS_POINTS + roomTypeAdjustments[type.ordinal()];
+        for (SeasonRule season : seasons) {
+            if (season.appliesTo(type) && season.contains(date)) {
+                factor += season.adjustment();
+            }
+        }
+        return Math.max(0, factor);
+    }
+
+    private long discount(long nights) {
+        for (DiscountRule rule : discounts) {
+            if (nights >= rule.minNights()) {
+                return rule.discount();
+            }
+        }
+        return 0;
+    }
+
+    private static long divideRounded(long basisPointCents) {
+        return (basisPointCents + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    private record Calendar(long firstDay, long[][] sums) {
+    }
+
+    private record SeasonRule(int from, int to, long adjustment, Set<RoomType> roomTypes) {
+
+        static SeasonRule of(PricingProperties.Season season) {
+            return new SeasonRule(monthDay(season.from()), monthDay(season.to()), season.adjustment() * 100L,
+                    season.roomTypes() == null ? Set.of() : Set.copyOf(season.roomTypes()));
+        }
+
+        boolean appliesTo(RoomType type) {
+            return roomTypes.isEmpty() || roomTypes.contains(type);
+        }
+
+        boolean contains(LocalDate date) {
+            int day = date.getMonthValue() * 100 + date.getDayOfMonth();
+            return from <= to ? day >= from && day <= to : day >= from || day <= to;
+        }
+
+        private static int monthDay(String value) {
+            MonthDay monthDay = MonthDay.parse("--" + value);
+            return monthDay.getMonthValue() * 100 + monthDay.getDayOfMonth();
+        }
+    }
+
+    private record DiscountRule(int minNights, long discount) {
+
+        static DiscountRule of(PricingProperties.LengthOfStayDiscount rule) {
+            if (rule.discount() < 0 || rule.discount() > 100) {
+                throw new IllegalArgumentException("Length-of-stay discounts must be between 0 and 100 percent.");
+            }
+            return new DiscountRule(rule.minNights(), rule.discount() * 100L);
+        }
+    }
+}
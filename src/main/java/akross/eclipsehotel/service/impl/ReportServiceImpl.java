@@ -0,0 +1,97 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.OccupancyReportDTO;
+import akross.eclipsehotel.dto.RankingEntryDTO;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.RoomRepository;
+import akross.eclipsehotel.service.ReportService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the reports from CONSULTA.sql out of {@link OccupancyCounters} instead of scanning
+ * tb_reservations. Only the handful of rooms and customers that make the rankings are read
+ * from the database, by primary key, to label them.
+ */
+@Service
+@Timed("eclipsehotel.service")
+public class ReportServiceImpl implements ReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportServiceImpl.class);
+
+    private static final int TOP_ROOMS = 3;
+
+    private static final int TOP_CUSTOMERS = 10;
+
+    private final OccupancyCounters occupancyCounters;
+
+    private final RoomRepository roomRepository;
+
+    private final CustomerRepository customerRepository;
+
+    public ReportServiceImpl(OccupancyCounters occupancyCounters,
+                             RoomRepository roomRepository,
+                             CustomerRepository customerRepository) {
+        this.occupancyCounters = occupancyCounters;
+        this.roomRepository = roomRepository;
+        this.customerRepository = customerRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public OccupancyReportDTO getOccupancyReport() {
+        List<RankingEntryDTO> mostOccupiedRooms = occupancyCounters.mostOccupiedRooms(TOP_ROOMS);
+        List<RankingEntryDTO> mostCanceledRooms = occupancyCounters.mostCanceledRooms(1);
+        List<RankingEntryDTO> topCustomers = occupancyCounters.topCustomers(TOP_CUSTOMERS);
+
+        Map<Long, String> roomNumbers = roomRepository.findAllById(
+                        ids(mostOccupiedRooms, mostCanceledRooms)).stream()
+                .collect(Collectors.toMap(Room::getId, Room::getNumber));
+        Map<Long, String> customerNames = customerRepository.findAllById(ids(topCustomers)).stream()
+                .collect(Collectors.toMap(Customer::getId, Customer::getName));
+
+        return new OccupancyReportDTO(
+                occupancyCounters.totalRooms(),
+                occupancyCounters.openReservations(),
+                occupancyCounters.count(ReservationStatus.SCHEDULED),
+                occupancyCounters.count(ReservationStatus.IN_USE),
+                occupancyCounters.vacantRooms(),
+                label(mostOccupiedRooms, roomNumbers),
+                label(mostCanceledRooms, roomNumbers).stream().findFirst().orElse(null),
+                label(topCustomers, customerNames)
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${eclipse-hotel.reports.reconcile-interval:PT15M}",
+            initialDelayString = "${eclipse-hotel.reports.reconcile-interval:PT15M}")
+    public void reconcile() {
+        logger.info("Replaying the reservation event log into the occupancy counters.");
+        occupancyCounters.load();
+    }
+
+    @SafeVarargs
+    private static List<Long> ids(List<RankingEntryDTO>... rankings) {
+        return Arrays.stream(rankings)
+                .flatMap(List::stream)
+                .map(RankingEntryDTO::id)
+                .distinct()
+                .toList();
+    }
+
+    private static List<RankingEntryDTO> label(List<RankingEntryDTO> ranking, Map<Long, String> labels) {
+        return ranking.stream()
+                .map(entry -> entry.withLabel(labels.get(entry.id())))
+                .toList();
+    }
+}
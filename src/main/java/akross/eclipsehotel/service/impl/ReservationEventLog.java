@@ -0,0 +1,122 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.config.CatalogVersions;
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.ReservationTransitionDTO;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationEvent;
+import akross.eclipsehotel.model.ReservationEventType;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.repository.ReservationEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Appends one row to tb_reservation_events for every reservation that is opened or changes status,
+ * in the transaction that makes the change, so the log holds exactly the committed history. Once
+ * that transaction commits the same events move {@link OccupancyCounters}, whose projections are
+ * rebuilt at startup by replaying the log rather than by grouping tb_reservations.
+ */
+@Component
+public class ReservationEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationEventLog.class);
+
+    private final ReservationEventRepository reservationEventRepository;
+
+    private final OccupancyCounters occupancyCounters;
+
+    private final CatalogVersions catalogVersions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservationEventLog(ReservationEventRepository reservationEventRepository,
+                               OccupancyCounters occupancyCounters,
+                               CatalogVersions catalogVersions,
+                               PlatformTransactionManager transactionManager) {
+        this.reservationEventRepository = reservationEventRepository;
+        this.occupancyCounters = occupancyCounters;
+        this.catalogVersions = catalogVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void load() {
+        Integer backfilled = transactionTemplate.execute(status ->
+                reservationEventRepository.insertOpenedForUnlogged(Instant.now()));
+        if (backfilled != null && backfilled > 0) {
+            logger.info("Logged {} reservations that had no events yet.", backfilled);
+        }
+        occupancyCounters.load();
+    }
+
+    public void opened(Reservation reservation) {
+        append(List.of(event(reservation.getId(), reservation.getRoom().getId(), reservation.getCustomer().getId(),
+                ReservationEventType.OPENED, null, reservation.getStatus())));
+    }
+
+    public void changed(ReservationDTO reservation, ReservationStatus to) {
+        append(List.of(event(reservation.id(), reservation.roomId(), reservation.customerId(),
+                typeOf(to), reservation.status(), to)));
+    }
+
+    // The rows findDueForTransition returned for a chunk, after the bulk UPDATEs moved them on the same day.
+    public void transitioned(List<ReservationTransitionDTO> due, LocalDate today) {
+        append(due.stream()
+                .map(reservation -> {
+                    ReservationStatus to = !reservation.checkout().isBefore(today) ? ReservationStatus.IN_USE
+                            : reservation.status() == ReservationStatus.SCHEDULED ? ReservationStatus.ABSENCE
+                            : ReservationStatus.FINISHED;
+                    return event(reservation.id(), reservation.roomId(), reservation.customerId(),
+                            typeOf(to), reservation.status(), to);
+                })
+                .toList());
+    }
+
+    private void append(List<ReservationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        reservationEventRepository.saveAll(events);
+        List<Long> eventIds = events.stream().map(ReservationEvent::getId).toList();
+        occupancyCounters.pending(eventIds);
+        TransactionCallbacks.afterRollback(() -> occupancyCounters.discard(eventIds));
+        TransactionCallbacks.afterCommit(() -> events.forEach(event -> occupancyCounters.apply(
+                event.getId(), event.getRoomId(), event.getCustomerId(), event.getPreviousStatus(), event.getStatus())));
+        if (events.stream().anyMatch(event -> event.getStatus() == ReservationStatus.IN_USE
+                || event.getPreviousStatus() == ReservationStatus.IN_USE)) {
+            TransactionCallbacks.afterCommitAndEvictions(catalogVersions::inUseReservationsChanged);
+        }
+    }
+
+    private static ReservationEvent event(Long reservationId, Long roomId, Long customerId, ReservationEventType type,
+                                          ReservationStatus previousStatus, ReservationStatus status) {
+        ReservationEvent event = new ReservationEvent();
+        event.setReservationId(reservationId);
+        event.setRoomId(roomId);
+        event.setCustomerId(customerId);
+        event.setType(type);
+        event.setPreviousStatus(previousStatus);
+        event.setStatus(status);
+        event.setOccurredAt(Instant.now());
+        return event;
+    }
+
+    private static ReservationEventType typeOf(ReservationStatus to) {
+        return switch (to) {
+            case IN_USE -> ReservationEventType.CHECKED_IN;
+            case FINISHED -> ReservationEventType.FINISHED;
+            case ABSENCE -> ReservationEventType.ABSENT;
+            case CANCELED -> ReservationEventType.CANCELED;
+            case SCHEDULED -> throw new IllegalArgumentException("A reservation is only SCHEDULED when it is opened.");
+        };
+    }
+}
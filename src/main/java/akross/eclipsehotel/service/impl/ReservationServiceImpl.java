@@ -1,87 +1,246 @@
 package akross.eclipsehotel.service.impl;
 
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.dto.ReservationPageDTO;
 import akross.eclipsehotel.exception.BusinessException;
 import akross.eclipsehotel.exception.NotFoundException;
+import akross.eclipsehotel.model.Customer;
 import akross.eclipsehotel.model.Reservation;
 import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.ReservationEventRepository;
 import akross.eclipsehotel.repository.ReservationRepository;
+import akross.eclipsehotel.repository.ReservationSearchCriteria;
+import akross.eclipsehotel.repository.ReservationSort;
+import akross.eclipsehotel.repository.ReservationSpecifications;
+import akross.eclipsehotel.repository.RoomRepository;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationBatchResult;
 import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
 
 @Service
+@Timed("eclipsehotel.service")
 public class ReservationServiceImpl implements ReservationService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReservationServiceImpl.class);
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ReservationRepository reservationRepository;
 
-    public ReservationServiceImpl(ReservationRepository reservationRepository) {
+    private final CustomerRepository customerRepository;
+
+    private final RoomRepository roomRepository;
+
+    private final CustomerService customerService;
+
+    private final RoomService roomService;
+
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private final RoomLocks roomLocks;
+
+    private final ReservationEventLog reservationEventLog;
+
+    private final ReservationEventRepository reservationEventRepository;
+
+    private final RateCalendar rateCalendar;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer overlapCheckTimer;
+
+    private final Counter acceptedCounter;
+
+    private final Counter conflictCounter;
+
+    private final Counter statusConflictCounter;
+
+    private final int maxStatusUpdateAttempts;
+
+    private final int batchRoomsPerTransaction;
+
+    public ReservationServiceImpl(ReservationRepository reservationRepository,
+                                  CustomerRepository customerRepository,
+                                  RoomRepository roomRepository,
+                                  CustomerService customerService,
+                                  RoomService roomService,
+                                  RoomAvailabilityIndex roomAvailabilityIndex,
+                                  RoomLocks roomLocks,
+                                  ReservationEventLog reservationEventLog,
+                                  ReservationEventRepository reservationEventRepository,
+                                  RateCalendar rateCalendar,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${eclipse-hotel.reservations.status-update-attempts:3}") int maxStatusUpdateAttempts,
+                                  @Value("${eclipse-hotel.booking.batch-rooms-per-transaction:16}") int batchRoomsPerTransaction) {
         this.reservationRepository = reservationRepository;
+        this.customerRepository = customerRepository;
+        this.roomRepository = roomRepository;
+        this.customerService = customerService;
+        this.roomService = roomService;
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
+        this.roomLocks = roomLocks;
+        this.reservationEventLog = reservationEventLog;
+        this.reservationEventRepository = reservationEventRepository;
+        this.rateCalendar = rateCalendar;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.overlapCheckTimer = Timer.builder("eclipsehotel.reservation.overlap.check")
+                .description("Time spent checking a requested period against the room's schedule")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("eclipsehotel.reservation.requests")
+                .description("Reservation requests that reached the overlap check, by outcome; accepted ones once committed")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("eclipsehotel.reservation.requests")
+                .description("Reservation requests that reached the overlap check, by outcome; accepted ones once committed")
+                .tag("outcome", "conflict")
+                .register(meterRegistry);
+        this.statusConflictCounter = Counter.builder("eclipsehotel.reservation.status.conflicts")
+                .description("Conditional status updates that found the reservation already changed and were retried")
+                .register(meterRegistry);
+        this.maxStatusUpdateAttempts = maxStatusUpdateAttempts;
+        this.batchRoomsPerTransaction = batchRoomsPerTransaction;
     }
 
-    @Transactional
+    // The room lock is taken before the transaction opens, so waiting for it does not hold a connection.
+    // Inside the transaction the room's row lock does the same for bookings made by other instances.
+    // Only the customer's and room's IDs are read from the reservation: both come from the catalog
+    // caches, and a cache miss is loaded inside the read-write transaction, so from the primary.
     public Reservation openReservation(Reservation reservationToCreate) {
         logger.info("Opening reservation:");
 
-        ofNullable(reservationToCreate).orElseThrow(() -> {
-            logger.error("Reservation to create must not be null.");
-            return new BusinessException("Reservation to create must not be null.");
-        });
-        ofNullable(reservationToCreate.getCustomer()).orElseThrow(() -> {
-            logger.error("Reservation customer must not be null.");
-            return new BusinessException("Reservation customer must not be null.");
-        });
-        ofNullable(reservationToCreate.getRoom()).orElseThrow(() -> {
-            logger.error("Reservation room must not be null.");
-            return new BusinessException("Reservation room must not be null.");
-        });
-        ofNullable(reservationToCreate.getCheckin()).orElseThrow(() -> {
-            logger.error("Reservation checkin must not be null.");
-            return new BusinessException("Reservation checkin must not be null.");
-        });
-        ofNullable(reservationToCreate.getCheckout()).orElseThrow(() -> {
-            logger.error("Reservation checkout must not be null.");
-            return new BusinessException("Reservation checkout must not be null.");
-        });
-        ofNullable(reservationToCreate.getStatus()).orElseThrow(() -> {
-            logger.error("Reservation status must not be null.");
-            return new BusinessException("Reservation status must not be null.");
+        validate(reservationToCreate);
+        Long roomId = reservationToCreate.getRoom().getId();
+        Reservation savedReservation = roomLocks.callWithLocks(List.of(roomId),
+                () -> transactionTemplate.execute(status -> {
+                    roomRepository.lockById(roomId).orElseThrow(() -> {
+                        logger.error("Room not found with ID: {}", roomId);
+                        return new NotFoundException("Room not found with ID: " + roomId);
+                    });
+                    reservationToCreate.setCustomer(customerService.findDtoById(reservationToCreate.getCustomer().getId()).toModel());
+                    reservationToCreate.setRoom(roomService.findDtoById(roomId).toModel());
+                    return insert(reservationToCreate);
+                }));
+        logger.info("Reservation created successfully with ID: {}", savedReservation.getId());
+        return savedReservation;
+    }
+
+    public List<ReservationBatchResult> openReservations(List<Reservation> reservationsToCreate) {
+        ofNullable(reservationsToCreate).orElseThrow(() -> {
+            logger.error("Reservations to create must not be null.");
+            return new BusinessException("Reservations to create must not be null.");
         });
+        if (reservationsToCreate.size() > MAX_BATCH_SIZE) {
+            logger.error("Reservation batch of {} exceeds the limit of {}.", reservationsToCreate.size(), MAX_BATCH_SIZE);
+            throw new BusinessException("A reservation batch must not contain more than " + MAX_BATCH_SIZE + " reservations.");
+        }
+        logger.info("Opening batch of {} reservations.", reservationsToCreate.size());
 
-        if (reservationToCreate.getCheckin().isAfter(reservationToCreate.getCheckout())) {
-            logger.error("Check-in date must be before or on the same day as the check-out date.");
-            throw new BusinessException("Check-in date must be before or on the same day as the check-out date.");
+        // Items are grouped by room and each group of rooms is booked in its own transaction, so a
+        // large batch holds a few lock stripes at a time instead of nearly all of them.
+        Map<Long, List<Integer>> itemsByRoom = new LinkedHashMap<>();
+        for (int i = 0; i < reservationsToCreate.size(); i++) {
+            Reservation reservation = reservationsToCreate.get(i);
+            Long roomId = reservation != null && reservation.getRoom() != null ? reservation.getRoom().getId() : null;
+            itemsByRoom.computeIfAbsent(roomId, id -> new ArrayList<>()).add(i);
         }
+        List<Long> roomOrder = new ArrayList<>(itemsByRoom.keySet());
+        ReservationBatchResult[] results = new ReservationBatchResult[reservationsToCreate.size()];
+        for (int from = 0; from < roomOrder.size(); from += batchRoomsPerTransaction) {
+            List<Long> group = roomOrder.subList(from, Math.min(from + batchRoomsPerTransaction, roomOrder.size()));
+            List<Long> roomIds = group.stream().filter(Objects::nonNull).toList();
+            List<Integer> items = group.stream()
+                    .flatMap(roomId -> itemsByRoom.get(roomId).stream())
+                    .toList();
+            try {
+                roomLocks.callWithLocks(roomIds, () -> transactionTemplate.execute(status -> {
+                    openBatchItems(reservationsToCreate, items, roomIds, results);
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                // The group's transaction rolled back, so none of its items were booked, whatever they reported.
+                logger.error("Reservation batch group of rooms {} failed and was rolled back.", group, e);
+                for (int item : items) {
+                    results[item] = ReservationBatchResult.failure("Not booked: the transaction for this item's room failed. Please try again.");
+                }
+            }
+        }
+        logger.info("Reservation batch processed: {} created, {} rejected.",
+                Arrays.stream(results).filter(ReservationBatchResult::isSuccess).count(),
+                Arrays.stream(results).filter(result -> !result.isSuccess()).count());
+        return Arrays.asList(results);
+    }
 
-        List<ReservationStatus> occupiedStatuses = List.of(ReservationStatus.SCHEDULED, ReservationStatus.IN_USE);
-        if (reservationRepository.existsByRoomNumberAndStatusInAndCheckoutAfterAndCheckinBefore(
-                reservationToCreate.getRoom().getNumber(),
-                occupiedStatuses,
-                reservationToCreate.getCheckin(),
-                reservationToCreate.getCheckout()
-        )) {
-            logger.error("Room {} is currently occupied or scheduled during the requested period.", reservationToCreate.getRoom().getNumber());
-            throw new BusinessException("This room is currently occupied or scheduled during the requested period.");
+    // Callers must hold the room locks of roomIds; the rooms' row locks are taken here.
+    private void openBatchItems(List<Reservation> reservationsToCreate, List<Integer> items, List<Long> roomIds,
+                                ReservationBatchResult[] results) {
+        Set<Long> customerIds = new HashSet<>();
+        for (int item : items) {
+            Reservation reservation = reservationsToCreate.get(item);
+            if (reservation != null && reservation.getCustomer() != null && reservation.getCustomer().getId() != null) {
+                customerIds.add(reservation.getCustomer().getId());
+            }
         }
+        Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, Room> rooms = (roomIds.isEmpty() ? List.<Room>of() : roomRepository.lockAllById(roomIds)).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
 
-        updateReservationStatus(reservationToCreate);
-        Reservation savedReservation = reservationRepository.save(reservationToCreate);
-        logger.info("Reservation created successfully with ID: {}", savedReservation.getId());
-        return savedReservation;
+        for (int item : items) {
+            Reservation reservation = reservationsToCreate.get(item);
+            try {
+                validate(reservation);
+                reservation.setCustomer(resolve(customers, reservation.getCustomer().getId(), "Customer"));
+                reservation.setRoom(resolve(rooms, reservation.getRoom().getId(), "Room"));
+                results[item] = ReservationBatchResult.success(insert(reservation));
+            } catch (BusinessException e) {
+                results[item] = ReservationBatchResult.failure(e.getMessage());
+            }
+        }
     }
 
-    @Transactional
-    public List<Reservation> findReservationsBetween(LocalDate start, LocalDate end) {
+    @Transactional(readOnly = true)
+    public List<ReservationDTO> findReservationsBetween(LocalDate start, LocalDate end) {
         logger.info("Finding reservations between {} and {}", start, end);
-        List<Reservation> reservations = reservationRepository.findByCheckinBetween(start, end);
+        List<ReservationDTO> reservations = reservationRepository.findDtoByCheckinBetween(start, end);
         if (reservations.isEmpty()) {
             logger.info("No reservations found between {} and {}.", start, end);
         } else {
@@ -91,9 +250,55 @@ public class ReservationServiceImpl implements ReservationService {
     }
 
     @Transactional(readOnly = true)
-    public List<Reservation> findInUseReservations() {
+    public List<ReservationDTO> findReservationsBetween(LocalDate start, LocalDate end, Long after, Integer limit) {
+        logger.info("Finding reservations between {} and {} after ID {}", start, end, after);
+        List<ReservationDTO> reservations = reservationRepository.findDtoByCheckinBetween(
+                start, end, PageLimits.after(after), PageLimits.of(limit));
+        logger.info("Found {} reservations between {} and {} after ID {}.", reservations.size(), start, end, after);
+        return reservations;
+    }
+
+    @Transactional(readOnly = true)
+    public void streamReservationsBetween(LocalDate start, LocalDate end, Consumer<ReservationDTO> consumer) {
+        logger.info("Streaming reservations between {} and {}", start, end);
+        long count = 0;
+        try (Stream<ReservationDTO> reservations = reservationRepository.streamDtoByCheckinBetween(start, end)) {
+            Iterator<ReservationDTO> iterator = reservations.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        logger.info("Streamed {} reservations between {} and {}.", count, start, end);
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationPageDTO searchReservations(ReservationSearchCriteria criteria, String cursor, Integer limit) {
+        validate(criteria);
+        ReservationSort sort = criteria.sort() == null ? ReservationSort.ID : criteria.sort();
+        Sort.Direction direction = criteria.direction() == null ? Sort.Direction.ASC : criteria.direction();
+        int pageSize = PageLimits.of(limit).max();
+        logger.info("Searching reservations by {} sorted by {} {} after {}", criteria, sort, direction, cursor);
+
+        Specification<Reservation> specification = ReservationSpecifications.matching(criteria);
+        if (cursor != null) {
+            specification = specification.and(after(sort, direction, cursor));
+        }
+        // One extra row tells whether another page follows without a count query.
+        List<ReservationDTO> reservations = reservationRepository.findDtos(specification, sort, direction, Limit.of(pageSize + 1));
+        String next = null;
+        if (reservations.size() > pageSize) {
+            reservations = reservations.subList(0, pageSize);
+            next = cursorOf(sort, reservations.get(pageSize - 1));
+        }
+        logger.info("Found {} reservations, next page cursor {}.", reservations.size(), next);
+        return new ReservationPageDTO(reservations, next);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservationDTO> findInUseReservations() {
         logger.info("Finding reservations with status IN_USE.");
-        List<Reservation> reservations = reservationRepository.findByStatus(ReservationStatus.IN_USE);
+        List<ReservationDTO> reservations = reservationRepository.findDtoByStatus(ReservationStatus.IN_USE);
         if (reservations.isEmpty()) {
             logger.info("No reservations are currently in use.");
         } else {
@@ -127,24 +332,169 @@ public class ReservationServiceImpl implements ReservationService {
         }
     }
 
+    // Each attempt reads the status and moves it with one conditional UPDATE, so a status transition
+    // committed in between is never overwritten; the next attempt cancels from the new status instead.
     @Transactional
-    public Reservation cancelReservation(Long id) {
+    public ReservationDTO cancelReservation(Long id) {
         logger.info("Cancelling reservation with ID: {}", id);
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Reservation not found with ID: {}", id);
-                    return new NotFoundException("Reservation not found with ID: " + id);
-                });
-
-        if (reservation.getStatus() == ReservationStatus.CANCELED) {
-            logger.info("Reservation with ID: {} is already canceled.", id);
-        } else {
-            reservation.setStatus(ReservationStatus.CANCELED);
-            reservationRepository.save(reservation);
-            logger.info("Reservation with ID: {} has been successfully canceled.", id);
+        for (int attempt = 1; attempt <= maxStatusUpdateAttempts; attempt++) {
+            ReservationDTO reservation = reservationRepository.findDtoById(id)
+                    .orElseThrow(() -> {
+                        logger.error("Reservation not found with ID: {}", id);
+                        return new NotFoundException("Reservation not found with ID: " + id);
+                    });
+
+            if (reservation.status() == ReservationStatus.CANCELED) {
+                logger.info("Reservation with ID: {} is already canceled.", id);
+                return reservation;
+            }
+            if (reservationRepository.compareAndSetStatus(id, reservation.status(), ReservationStatus.CANCELED) == 1) {
+                if (RoomAvailabilityIndex.isOccupied(reservation.status())) {
+                    TransactionCallbacks.afterCommit(() -> roomAvailabilityIndex.remove(
+                            reservation.roomId(), id, reservation.checkin(), reservation.checkout()));
+                }
+                reservationEventLog.changed(reservation, ReservationStatus.CANCELED);
+                logger.info("Reservation with ID: {} has been successfully canceled.", id);
+                return reservation.withStatus(ReservationStatus.CANCELED);
+            }
+            statusConflictCounter.increment();
+            logger.warn("Reservation with ID: {} changed from {} while being canceled (attempt {} of {}).",
+                    id, reservation.status(), attempt, maxStatusUpdateAttempts);
+        }
+        logger.error("Gave up canceling reservation with ID: {} after {} concurrent changes.", id, maxStatusUpdateAttempts);
+        throw new BusinessException("The reservation is being changed by another request. Please try again.");
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservationEventDTO> findEvents(Long id) {
+        logger.info("Finding events of reservation with ID: {}", id);
+        List<ReservationEventDTO> events = reservationEventRepository.findDtoByReservationId(id);
+        // Every reservation is logged from the moment it is opened, so no events means no reservation.
+        if (events.isEmpty()) {
+            logger.error("Reservation not found with ID: {}", id);
+            throw new NotFoundException("Reservation not found with ID: " + id);
+        }
+        logger.info("Found {} events of reservation with ID: {}.", events.size(), id);
+        return events;
+    }
+
+    private void validate(Reservation reservationToCreate) {
+        ofNullable(reservationToCreate).orElseThrow(() -> {
+            logger.error("Reservation to create must not be null.");
+            return new BusinessException("Reservation to create must not be null.");
+        });
+        ofNullable(reservationToCreate.getCustomer()).orElseThrow(() -> {
+            logger.error("Reservation customer must not be null.");
+            return new BusinessException("Reservation customer must not be null.");
+        });
+        ofNullable(reservationToCreate.getRoom()).orElseThrow(() -> {
+            logger.error("Reservation room must not be null.");
+            return new BusinessException("Reservation room must not be null.");
+        });
+        ofNullable(reservationToCreate.getCheckin()).orElseThrow(() -> {
+            logger.error("Reservation checkin must not be null.");
+            return new BusinessException("Reservation checkin must not be null.");
+        });
+        ofNullable(reservationToCreate.getCheckout()).orElseThrow(() -> {
+            logger.error("Reservation checkout must not be null.");
+            return new BusinessException("Reservation checkout must not be null.");
+        });
+        ofNullable(reservationToCreate.getStatus()).orElseThrow(() -> {
+            logger.error("Reservation status must not be null.");
+            return new BusinessException("Reservation status must not be null.");
+        });
+
+        if (reservationToCreate.getCheckin().isAfter(reservationToCreate.getCheckout())) {
+            logger.error("Check-in date must be before or on the same day as the check-out date.");
+            throw new BusinessException("Check-in date must be before or on the same day as the check-out date.");
         }
+        if (ChronoUnit.DAYS.between(reservationToCreate.getCheckin(), reservationToCreate.getCheckout()) > RateCalendar.MAX_NIGHTS) {
+            logger.error("Reservation exceeds the limit of {} nights.", RateCalendar.MAX_NIGHTS);
+            throw new BusinessException("A reservation must not be longer than " + RateCalendar.MAX_NIGHTS + " nights.");
+        }
+    }
 
-        return reservation;
+    private void validate(ReservationSearchCriteria criteria) {
+        ofNullable(criteria).orElseThrow(() -> {
+            logger.error("Reservation search criteria must not be null.");
+            return new BusinessException("Reservation search criteria must not be null.");
+        });
+        if (criteria.checkinFrom() != null && criteria.checkinTo() != null && criteria.checkinFrom().isAfter(criteria.checkinTo())) {
+            logger.error("Check-in window starts after it ends.");
+            throw new BusinessException("Check-in window must start before or on the day it ends.");
+        }
+        if (criteria.checkoutFrom() != null && criteria.checkoutTo() != null && criteria.checkoutFrom().isAfter(criteria.checkoutTo())) {
+            logger.error("Check-out window starts after it ends.");
+            throw new BusinessException("Check-out window must start before or on the day it ends.");
+        }
+    }
+
+    // Cursors are the last ID of a page, preceded by its sort date and '_' when sorting by a date.
+    private static String cursorOf(ReservationSort sort, ReservationDTO last) {
+        return switch (sort) {
+            case ID -> last.id().toString();
+            case CHECKIN -> last.checkin() + "_" + last.id();
+            case CHECKOUT -> last.checkout() + "_" + last.id();
+        };
+    }
+
+    private static Specification<Reservation> after(ReservationSort sort, Sort.Direction direction, String cursor) {
+        try {
+            if (sort == ReservationSort.ID) {
+                return ReservationSpecifications.after(sort, direction, null, Long.parseLong(cursor));
+            }
+            int separator = cursor.indexOf('_');
+            return ReservationSpecifications.after(sort, direction,
+                    LocalDate.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (IndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+            logger.error("Invalid search cursor: {}", cursor);
+            throw new BusinessException("Invalid search cursor: " + cursor);
+        }
+    }
+
+    // Callers must hold the room lock and the row lock of the reservation's room. The index only rejects
+    // early: it belongs to this instance and misses rows written elsewhere, so the database has the last word.
+    private Reservation insert(Reservation reservationToCreate) {
+        long start = System.nanoTime();
+        boolean available = roomAvailabilityIndex.isAvailable(
+                reservationToCreate.getRoom().getId(),
+                reservationToCreate.getCheckin(),
+                reservationToCreate.getCheckout()
+        ) && !reservationRepository.existsByRoomIdAndStatusInAndCheckoutAfterAndCheckinBefore(
+                reservationToCreate.getRoom().getId(),
+                RoomAvailabilityIndex.OCCUPIED_STATUSES,
+                reservationToCreate.getCheckin(),
+                reservationToCreate.getCheckout()
+        );
+        overlapCheckTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!available) {
+            conflictCounter.increment();
+            logger.error("Room {} is currently occupied or scheduled during the requested period.", reservationToCreate.getRoom().getNumber());
+            throw new BusinessException("This room is currently occupied or scheduled during the requested period.");
+        }
+
+        TransactionCallbacks.afterCommit(acceptedCounter::increment);
+
+        updateReservationStatus(reservationToCreate);
+        reservationToCreate.setTotal(RateCalendar.fromCents(rateCalendar.totalCents(
+                reservationToCreate.getRoom(), reservationToCreate.getCheckin(), reservationToCreate.getCheckout())));
+        Reservation savedReservation = reservationRepository.save(reservationToCreate);
+        if (RoomAvailabilityIndex.isOccupied(savedReservation.getStatus())) {
+            roomAvailabilityIndex.add(savedReservation);
+            TransactionCallbacks.afterRollback(() -> roomAvailabilityIndex.remove(savedReservation));
+        }
+        reservationEventLog.opened(savedReservation);
+        return savedReservation;
+    }
+
+    private <T> T resolve(Map<Long, T> loaded, Long id, String resource) {
+        T entity = loaded.get(id);
+        if (entity == null) {
+            logger.error("{} not found with ID: {}", resource, id);
+            throw new NotFoundException(resource + " not found with ID: " + id);
+        }
+        return entity;
     }
 
     private boolean isFinalStatus(ReservationStatus status) {
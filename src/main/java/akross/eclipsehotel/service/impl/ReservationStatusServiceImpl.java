@@ -0,0 +1,98 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationTransitionDTO;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.repository.ReservationRepository;
+import akross.eclipsehotel.service.ReservationStatusService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves reservations along their lifecycle as dates pass: IN_USE reservations whose checkout has
+ * passed become FINISHED, SCHEDULED ones whose checkout has passed without a check-in are no-shows
+ * and become ABSENCE, and SCHEDULED reservations whose checkin has arrived become IN_USE. Work is done with conditional bulk UPDATEs over ID ranges, one short transaction per
+ * chunk, so the booking path is never blocked for long and running the job on several nodes at
+ * once is harmless: a row already moved by one node no longer matches on the others. The rows
+ * moved in a chunk are appended to the reservation event log in the chunk's transaction.
+ */
+@Service
+@Timed("eclipsehotel.service")
+public class ReservationStatusServiceImpl implements ReservationStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationStatusServiceImpl.class);
+
+    private static final List<ReservationStatus> ACTIVE_STATUSES = List.of(ReservationStatus.SCHEDULED, ReservationStatus.IN_USE);
+
+    private final ReservationRepository reservationRepository;
+
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private final ReservationEventLog reservationEventLog;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public ReservationStatusServiceImpl(ReservationRepository reservationRepository,
+                                        RoomAvailabilityIndex roomAvailabilityIndex,
+                                        ReservationEventLog reservationEventLog,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${eclipse-hotel.status-transitions.chunk-size:5000}") int chunkSize) {
+        this.reservationRepository = reservationRepository;
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
+        this.reservationEventLog = reservationEventLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${eclipse-hotel.status-transitions.cron:0 5 * * * *}")
+    public void transitionStatuses() {
+        transitionStatuses(LocalDate.now());
+    }
+
+    public int transitionStatuses(LocalDate today) {
+        logger.info("Transitioning reservation statuses for {}.", today);
+        Long firstId = reservationRepository.findMinIdByStatusIn(ACTIVE_STATUSES);
+        Long lastId = reservationRepository.findMaxIdByStatusIn(ACTIVE_STATUSES);
+
+        int finished = 0;
+        int absent = 0;
+        int started = 0;
+        // Both bounds are read outside any chunk, so a cancellation in between can leave only one of them.
+        if (firstId != null && lastId != null) {
+            for (long chunkStart = firstId; chunkStart <= lastId; chunkStart += chunkSize) {
+                int[] updated = transitionChunk(chunkStart, Math.min(chunkStart + chunkSize - 1, lastId), today);
+                finished += updated[0];
+                absent += updated[1];
+                started += updated[2];
+            }
+        }
+
+        roomAvailabilityIndex.removeEndedBefore(today);
+        logger.info("Reservation status transition done: {} started, {} finished, {} absent.", started, finished, absent);
+        return started + finished + absent;
+    }
+
+    private int[] transitionChunk(long firstId, long lastId, LocalDate today) {
+        return transactionTemplate.execute(status -> {
+            List<ReservationTransitionDTO> due = reservationRepository.findDueForTransition(firstId, lastId, ACTIVE_STATUSES, today);
+            int[] updated = new int[]{
+                    // Ended reservations first, so a no-show is marked absent instead of being started.
+                    reservationRepository.updateStatusOfEnded(firstId, lastId, List.of(ReservationStatus.IN_USE), ReservationStatus.FINISHED, today),
+                    reservationRepository.updateStatusOfEnded(firstId, lastId, List.of(ReservationStatus.SCHEDULED), ReservationStatus.ABSENCE, today),
+                    reservationRepository.updateStatusOfStarted(firstId, lastId, List.of(ReservationStatus.SCHEDULED), ReservationStatus.IN_USE, today)
+            };
+            reservationEventLog.transitioned(due, today);
+            return updated;
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationPeriodDTO;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory view of the SCHEDULED and IN_USE periods of every room, keyed by room ID.
+ * Overlap checks use the same half-open rule as the database query: an existing period
+ * conflicts when its checkout is after the requested checkin and its checkin is before
+ * the requested checkout.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    static final List<ReservationStatus> OCCUPIED_STATUSES = List.of(ReservationStatus.SCHEDULED, ReservationStatus.IN_USE);
+
+    private final ReservationRepository reservationRepository;
+
+    private final ConcurrentMap<Long, RoomSchedule> schedules = new ConcurrentHashMap<>();
+
+    public RoomAvailabilityIndex(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<ReservationPeriodDTO> periods = reservationRepository.findPeriodsByStatusIn(OCCUPIED_STATUSES);
+        schedules.clear();
+        periods.forEach(period -> add(period.roomId(), period.reservationId(), period.checkin(), period.checkout()));
+        logger.info("Loaded {} occupied periods for {} rooms into the availability index.", periods.size(), schedules.size());
+    }
+
+    public static boolean isOccupied(ReservationStatus status) {
+        return OCCUPIED_STATUSES.contains(status);
+    }
+
+    public boolean isAvailable(Long roomId, LocalDate checkin, LocalDate checkout) {
+        RoomSchedule schedule = schedules.get(roomId);
+        return schedule == null || !schedule.overlaps(checkin.toEpochDay(), checkout.toEpochDay());
+    }
+
+    public void add(Reservation reservation) {
+        add(reservation.getRoom().getId(), reservation.getId(), reservation.getCheckin(), reservation.getCheckout());
+    }
+
+    public void add(Long roomId, Long reservationId, LocalDate checkin, LocalDate checkout) {
+        schedules.computeIfAbsent(roomId, id -> new RoomSchedule())
+                .add(new Slot(checkin.toEpochDay(), checkout.toEpochDay(), reservationId));
+    }
+
+    public void remove(Reservation reservation) {
+        remove(reservation.getRoom().getId(), reservation.getId(), reservation.getCheckin(), reservation.getCheckout());
+    }
+
+    public void remove(Long roomId, Long reservationId, LocalDate checkin, LocalDate checkout) {
+        RoomSchedule schedule = schedules.get(roomId);
+        if (schedule != null) {
+            schedule.remove(new Slot(checkin.toEpochDay(), checkout.toEpochDay(), reservationId));
+        }
+    }
+
+    public void removeEndedBefore(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        schedules.values().forEach(schedule -> schedule.removeEndedBefore(epochDay));
+    }
+
+    private record Slot(long checkin, long checkout, long reservationId) implements Comparable<Slot> {
+
+        @Override
+        public int compareTo(Slot other) {
+            int result = Long.compare(checkin, other.checkin);
+            if (result == 0) {
+                result = Long.compare(checkout, other.checkout);
+            }
+            return result != 0 ? result : Long.compare(reservationId, other.reservationId);
+        }
+    }
+
+    private static final class RoomSchedule {
+
+        private final NavigableSet<Slot> slots = new TreeSet<>();
+
+        // Longest period ever stored; bounds how far back a conflicting checkin can be.
+        private long maxLength;
+
+        synchronized boolean overlaps(long checkin, long checkout) {
+            Slot from = new Slot(checkin - maxLength, Long.MIN_VALUE, Long.MIN_VALUE);
+            Slot to = new Slot(checkout, Long.MIN_VALUE, Long.MIN_VALUE);
+            for (Slot slot : slots.subSet(from, true, to, false)) {
+                if (slot.checkout() > checkin) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void add(Slot slot) {
+            slots.add(slot);
+            maxLength = Math.max(maxLength, slot.checkout() - slot.checkin());
+        }
+
+        synchronized void remove(Slot slot) {
+            slots.remove(slot);
+        }
+
+        synchronized void removeEndedBefore(long epochDay) {
+            slots.removeIf(slot -> slot.checkout() < epochDay);
+        }
+    }
+}
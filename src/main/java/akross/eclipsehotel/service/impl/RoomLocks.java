@@ -0,0 +1,105 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks keyed by room ID. Bookings for the same room are linearized while
+ * bookings for rooms on different stripes run in parallel. The lock is held until the
+ * booking's transaction completes, so the next booking for the room only checks
+ * availability once the previous one is committed or rolled back. Bookings take it
+ * before opening their transaction, so a request waiting for a busy room does not hold
+ * a pooled connection while it waits.
+ */
+@Component
+public class RoomLocks {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomLocks.class);
+
+    private final ReentrantLock[] stripes;
+
+    private final long timeoutMillis;
+
+    private final Timer waitTimer;
+
+    public RoomLocks(@Value("${eclipse-hotel.booking.lock-stripes:256}") int stripeCount,
+                     @Value("${eclipse-hotel.booking.lock-timeout-ms:5000}") long timeoutMillis,
+                     MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.waitTimer = Timer.builder("eclipsehotel.room.lock.wait")
+                .description("Time spent waiting for a room booking lock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action}, which is expected to open and complete its own transaction, while
+     * holding the locks of {@code roomIds}. Called inside a transaction, the locks are instead
+     * held until that transaction completes.
+     */
+    public <T> T callWithLocks(Collection<Long> roomIds, Supplier<T> action) {
+        int[] indexes = stripeIndexes(roomIds);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (int index : indexes) {
+                lock(index);
+                TransactionCallbacks.afterCompletion(stripes[index]::unlock);
+            }
+            return action.get();
+        }
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                lock(index);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    // Stripes are always taken in ascending order so that two batches cannot deadlock.
+    private int[] stripeIndexes(Collection<Long> roomIds) {
+        return roomIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private void lock(int index) {
+        ReentrantLock lock = stripes[index];
+        long start = System.nanoTime();
+        try {
+            boolean locked = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!locked) {
+                logger.error("Timed out waiting for booking lock stripe {}.", index);
+                throw new BusinessException("This room is being booked by another request. Please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for the room booking lock.");
+        }
+    }
+
+    private int stripeIndex(Long roomId) {
+        return Math.floorMod(Long.hashCode(roomId), stripes.length);
+    }
+}
@@ -1,28 +1,57 @@
 package akross.eclipsehotel.service.impl;
 
+import akross.eclipsehotel.config.CacheConfig;
+import akross.eclipsehotel.config.CatalogVersions;
+import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.dto.RoomReservationDTO;
 import akross.eclipsehotel.exception.BusinessException;
 import akross.eclipsehotel.exception.NotFoundException;
 import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.repository.ReservationRepository;
 import akross.eclipsehotel.repository.RoomRepository;
 import akross.eclipsehotel.service.RoomService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static java.util.Optional.ofNullable;
 
 @Service
+@Timed("eclipsehotel.service")
 public class RoomServiceImpl implements RoomService {
 
     private static final Logger logger = LoggerFactory.getLogger(RoomServiceImpl.class);
 
     private final RoomRepository roomRepository;
 
-    public RoomServiceImpl(RoomRepository roomRepository) {
+    private final ReservationRepository reservationRepository;
+
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private final OccupancyCounters occupancyCounters;
+
+    private final CatalogVersions catalogVersions;
+
+    public RoomServiceImpl(RoomRepository roomRepository,
+                           ReservationRepository reservationRepository,
+                           RoomAvailabilityIndex roomAvailabilityIndex,
+                           OccupancyCounters occupancyCounters,
+                           CatalogVersions catalogVersions) {
         this.roomRepository = roomRepository;
+        this.reservationRepository = reservationRepository;
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
+        this.occupancyCounters = occupancyCounters;
+        this.catalogVersions = catalogVersions;
     }
 
     @Transactional(readOnly = true)
@@ -36,6 +65,45 @@ public class RoomServiceImpl implements RoomService {
         return rooms;
     }
 
+    @Cacheable(CacheConfig.ROOM_LISTS)
+    @Transactional(readOnly = true)
+    public List<RoomDTO> findAllDto() {
+        List<RoomDTO> rooms = List.copyOf(roomRepository.findAllDto());
+        logger.info("Retrieved {} rooms from the database.", rooms.size());
+        return rooms;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoomDTO> findDtoPage(Long after, Integer limit) {
+        List<RoomDTO> rooms = roomRepository.findDtoPage(PageLimits.after(after), PageLimits.of(limit));
+        logger.info("Retrieved {} rooms after ID {}.", rooms.size(), after);
+        return rooms;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ROOMS, key = "#id")
+    @Transactional(readOnly = true)
+    public RoomDTO findDtoById(Long id) {
+        logger.info("Searching for room with ID: {}", id);
+        return roomRepository.findDtoById(id).orElseThrow(() -> {
+            logger.error("Room not found with ID: {}", id);
+            return new NotFoundException("Room not found with ID: " + id);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoomReservationDTO> findReservations(Long id, Long after, Integer limit) {
+        logger.info("Searching for reservations of room {} after ID {}", id, after);
+        List<RoomReservationDTO> reservations = reservationRepository.findHistoryOfRoom(
+                id, PageLimits.after(after), PageLimits.of(limit));
+        // An empty page is the only case where the room itself has to be looked up.
+        if (reservations.isEmpty() && !roomRepository.existsById(id)) {
+            logger.error("Room not found with ID: {}", id);
+            throw new NotFoundException("Room not found with ID: " + id);
+        }
+        logger.info("Retrieved {} reservations of room {} after ID {}.", reservations.size(), id, after);
+        return reservations;
+    }
+
     @Transactional(readOnly = true)
     public Room findById(Long id) {
         logger.info("Searching for room with ID: {}", id);
@@ -45,6 +113,32 @@ public class RoomServiceImpl implements RoomService {
         });
     }
 
+    @Transactional(readOnly = true)
+    public List<RoomDTO> findAvailable(LocalDate checkin, LocalDate checkout, RoomType type) {
+        logger.info("Searching for {} rooms available between {} and {}", type == null ? "all" : type, checkin, checkout);
+
+        ofNullable(checkin).orElseThrow(() -> {
+            logger.error("Checkin must not be null.");
+            return new BusinessException("Checkin must not be null.");
+        });
+        ofNullable(checkout).orElseThrow(() -> {
+            logger.error("Checkout must not be null.");
+            return new BusinessException("Checkout must not be null.");
+        });
+        if (checkin.isAfter(checkout)) {
+            logger.error("Check-in date must be before or on the same day as the check-out date.");
+            throw new BusinessException("Check-in date must be before or on the same day as the check-out date.");
+        }
+
+        List<RoomDTO> candidates = type == null ? roomRepository.findAllDto() : roomRepository.findDtoByType(type);
+        List<RoomDTO> availableRooms = candidates.stream()
+                .filter(room -> roomAvailabilityIndex.isAvailable(room.id(), checkin, checkout))
+                .toList();
+        logger.info("Found {} available rooms out of {} candidates.", availableRooms.size(), candidates.size());
+        return availableRooms;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.ROOM_LISTS, allEntries = true)
     @Transactional
     public Room create(Room roomToCreate) {
         logger.info("Creating a new room: {}", roomToCreate);
@@ -72,10 +166,16 @@ public class RoomServiceImpl implements RoomService {
         }
 
         Room createdRoom = roomRepository.save(roomToCreate);
+        TransactionCallbacks.afterCommit(occupancyCounters::roomCreated);
+        TransactionCallbacks.afterCommitAndEvictions(() -> catalogVersions.roomChanged(createdRoom.getId()));
         logger.info("Room created successfully with ID: {}", createdRoom.getId());
         return createdRoom;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_LISTS, allEntries = true)
+    })
     @Transactional
     public Room update(Long id, Room roomToUpdate) {
         logger.info("Updating room with ID: {}", id);
@@ -90,11 +190,22 @@ public class RoomServiceImpl implements RoomService {
         dbRoom.setType(roomToUpdate.getType());
         dbRoom.setPrice(roomToUpdate.getPrice());
 
-        Room updatedRoom = roomRepository.save(dbRoom);
+        Room updatedRoom;
+        try {
+            updatedRoom = roomRepository.saveAndFlush(dbRoom);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Room with ID: {} was changed by another request while being updated.", id);
+            throw new BusinessException("The room was changed by another request. Please try again.");
+        }
+        TransactionCallbacks.afterCommitAndEvictions(() -> catalogVersions.roomChanged(id));
         logger.info("Room with ID: {} updated successfully.", id);
         return updatedRoom;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_LISTS, allEntries = true)
+    })
     @Transactional
     public void delete(Long id) {
         logger.info("Deleting room with ID: {}", id);
@@ -103,6 +214,8 @@ public class RoomServiceImpl implements RoomService {
             return new NotFoundException("Room not found with ID: " + id);
         });
         roomRepository.delete(room);
+        TransactionCallbacks.afterCommit(() -> occupancyCounters.roomDeleted(id));
+        TransactionCallbacks.afterCommitAndEvictions(() -> catalogVersions.roomChanged(id));
         logger.info("Room with ID: {} deleted successfully.", id);
     }
 }
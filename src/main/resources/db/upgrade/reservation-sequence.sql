@@ -0,0 +1,10 @@
+-- Reservas passaram de coluna identity para uma sequence com alocação de 50 IDs (pooled).
+-- Execute uma vez, com a aplicação parada, em um banco PostgreSQL criado antes dessa mudança.
+-- O primeiro nextval devolve o fim do primeiro bloco, então a sequence começa em max(id) + 50
+-- para que o bloco comece logo depois do maior ID existente. O ALTER SEQUENCE cobre uma
+-- sequence que já exista com incremento 1.
+
+CREATE SEQUENCE IF NOT EXISTS tb_reservations_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_reservations_seq INCREMENT BY 50;
+SELECT setval('tb_reservations_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_reservations), false);
+ALTER TABLE tb_reservations ALTER COLUMN id DROP IDENTITY IF EXISTS;
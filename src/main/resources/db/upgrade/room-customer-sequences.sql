@@ -0,0 +1,12 @@
+-- Quartos e clientes passaram de colunas identity para sequences com alocação de 50 IDs (pooled).
+-- Execute uma vez, com a aplicação parada, em um banco PostgreSQL criado antes dessa mudança.
+-- O primeiro nextval devolve o fim do primeiro bloco, então cada sequence começa em max(id) + 50
+-- para que o bloco comece logo depois do maior ID existente.
+
+CREATE SEQUENCE IF NOT EXISTS tb_rooms_seq INCREMENT BY 50;
+SELECT setval('tb_rooms_seq', (SELECT COALESCE(MAX(room_id), 0) + 50 FROM tb_rooms), false);
+ALTER TABLE tb_rooms ALTER COLUMN room_id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS tb_customers_seq INCREMENT BY 50;
+SELECT setval('tb_customers_seq', (SELECT COALESCE(MAX(customer_id), 0) + 50 FROM tb_customers), false);
+ALTER TABLE tb_customers ALTER COLUMN customer_id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,62 @@
+package akross.eclipsehotel;
+
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unsaved customers, rooms and reservations for the tests to save through the services or the
+ * repositories. The tests share one database, so emails and room numbers get a unique suffix.
+ */
+public final class TestFixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private TestFixtures() {
+    }
+
+    public static String unique(String prefix) {
+        return prefix + "-" + System.nanoTime() + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    public static Customer customer(String prefix) {
+        return customerWithEmail(unique(prefix) + "@eclipse.test");
+    }
+
+    public static Customer customerWithEmail(String email) {
+        Customer customer = new Customer();
+        customer.setName("Test Customer");
+        customer.setEmail(email);
+        customer.setPhone("000");
+        customer.setCreatedAt(LocalDate.now());
+        return customer;
+    }
+
+    public static Room room(String prefix) {
+        return room(prefix, RoomType.SINGLE, "80.00");
+    }
+
+    public static Room room(String prefix, RoomType type, String price) {
+        Room room = new Room();
+        room.setNumber(unique(prefix));
+        room.setType(type);
+        room.setPrice(new BigDecimal(price));
+        return room;
+    }
+
+    public static Reservation reservation(Customer customer, Room room, LocalDate checkin, LocalDate checkout) {
+        Reservation reservation = new Reservation();
+        reservation.setCustomer(customer);
+        reservation.setRoom(room);
+        reservation.setCheckin(checkin);
+        reservation.setCheckout(checkout);
+        reservation.setStatus(ReservationStatus.SCHEDULED);
+        return reservation;
+    }
+}
@@ -0,0 +1,91 @@
+package akross.eclipsehotel.config;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CacheConfigTests {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void roomListIsServedFromTheCacheUntilARoomChanges() {
+        roomService.findAllDto();
+
+        statementCounter.start();
+        List<RoomDTO> cached = roomService.findAllDto();
+        assertEquals(0, statementCounter.stop());
+        assertThrows(UnsupportedOperationException.class, () -> cached.add(null));
+
+        Long id = roomService.create(room("cache", RoomType.SINGLE, "70.00")).getId();
+
+        assertTrue(roomService.findAllDto().stream().anyMatch(dto -> dto.id().equals(id)));
+    }
+
+    @Test
+    void roomIsServedFromTheCacheUntilItIsUpdated() {
+        Room created = roomService.create(room("cache", RoomType.SINGLE, "70.00"));
+        roomService.findDtoById(created.getId());
+
+        statementCounter.start();
+        roomService.findDtoById(created.getId());
+        assertEquals(0, statementCounter.stop());
+
+        created.setPrice(new BigDecimal("75.00"));
+        roomService.update(created.getId(), created);
+
+        assertEquals(new BigDecimal("75.00"), roomService.findDtoById(created.getId()).price());
+    }
+
+    @Test
+    void bookingReadsTheRoomAndCustomerFromTheCache() {
+        Long roomId = roomService.create(room("cache", RoomType.SINGLE, "70.00")).getId();
+        Long customerId = customerService.create(customer("cache")).getId();
+        roomService.findDtoById(roomId);
+        customerService.findDtoById(customerId);
+        LocalDate checkin = LocalDate.now().plusDays(7);
+
+        statementCounter.start();
+        Reservation booked = reservationService.openReservation(new ReservationDTO(null, customerId, roomId,
+                checkin, checkin.plusDays(2), ReservationStatus.SCHEDULED, null).toModel());
+        List<String> statements = statementCounter.statements();
+        statementCounter.stop();
+
+        // The room's row is still locked for the booking, but nothing else reads the catalog tables.
+        assertEquals(List.of(), statements.stream()
+                .filter(sql -> sql.contains("tb_customers") || sql.contains("tb_rooms") && !sql.contains("for update"))
+                .toList());
+        assertTrue(statements.stream().anyMatch(sql -> sql.startsWith("insert into tb_reservations")), statements::toString);
+        assertEquals(new BigDecimal("140.00"), booked.getTotal());
+    }
+}
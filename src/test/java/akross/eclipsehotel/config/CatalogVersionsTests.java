@@ -0,0 +1,123 @@
+package akross.eclipsehotel.config;
+
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.reservation;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "eclipse-hotel.http-cache.etags=true")
+@AutoConfigureMockMvc
+class CatalogVersionsTests {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void unchangedReservationsInUseAreNotQueriedAgain() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/reservations/in-use"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertEquals("no-cache, private", first.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        statementCounter.start();
+        MockHttpServletResponse second = mockMvc.perform(get("/reservations/in-use").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+        assertEquals(0, statementCounter.stop());
+        assertEquals(0, second.getContentLength());
+        assertEquals(etag, second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void updatingARoomChangesItsETag() throws Exception {
+        Room created = roomService.create(room("etag", RoomType.SINGLE, "90.00"));
+        String etag = mockMvc.perform(get("/rooms/" + created.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String listEtag = mockMvc.perform(get("/rooms"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/rooms/" + created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        created.setPrice(new BigDecimal("95.00"));
+        roomService.update(created.getId(), created);
+
+        String updatedEtag = mockMvc.perform(get("/rooms/" + created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, updatedEtag);
+        mockMvc.perform(get("/rooms").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void checkInAndCancellationChangeTheReservationsInUseETag() throws Exception {
+        Reservation reservation = reservation(customerService.create(customer("etag")),
+                roomService.create(room("etag", RoomType.DOUBLE, "100.00")), LocalDate.now(), LocalDate.now().plusDays(1));
+
+        String etag = inUseETag();
+        // Checking in today opens the reservation already in use.
+        Long id = reservationService.openReservation(reservation).getId();
+        mockMvc.perform(get("/reservations/in-use").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        etag = inUseETag();
+        reservationService.cancelReservation(id);
+        mockMvc.perform(get("/reservations/in-use").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void noTagsUnlessEnabled() {
+        CatalogVersions catalogVersions = new CatalogVersions(false, "", Duration.ofSeconds(5), Duration.ZERO);
+
+        assertNull(catalogVersions.roomList());
+        assertNull(catalogVersions.room(1L));
+        assertNull(catalogVersions.customer(1L));
+        assertNull(catalogVersions.inUseReservations());
+    }
+
+    private String inUseETag() throws Exception {
+        return mockMvc.perform(get("/reservations/in-use"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
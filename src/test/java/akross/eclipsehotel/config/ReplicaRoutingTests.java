@@ -0,0 +1,124 @@
+package akross.eclipsehotel.config;
+
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Both pools point at the same in-memory database, which stands in for a replica that never lags.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "eclipse-hotel.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "eclipse-hotel.datasource.replica.max-lag=2s",
+        "eclipse-hotel.datasource.replica.heartbeat-interval=PT1H",
+        "eclipse-hotel.idempotency.persistent=true"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void replicaCatchesUp() {
+        replicaLagMonitor.update(0);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        replicaLagMonitor.check();
+        double replica = connections("replica");
+
+        reservationService.findInUseReservations();
+
+        assertEquals(replica + 1, connections("replica"));
+    }
+
+    @Test
+    void laggingReplicaIsNotUsed() {
+        replicaLagMonitor.update(2001);
+        double replica = connections("replica");
+        double primary = connections("primary");
+
+        reservationService.findInUseReservations();
+
+        assertEquals(replica, connections("replica"));
+        assertEquals(primary + 1, connections("primary"));
+    }
+
+    @Test
+    void clientsReadTheirOwnWritesFromThePrimary() throws Exception {
+        replicaLagMonitor.update(0);
+        Cookie lastWrite = mockMvc.perform(post("/rooms")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"number\":\"routing-" + System.nanoTime() + "\",\"type\":\"SINGLE\",\"price\":90.00}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(lastWrite);
+
+        double replica = connections("replica");
+        mockMvc.perform(get("/reservations/in-use").cookie(lastWrite)).andExpect(status().isOk());
+        assertEquals(replica, connections("replica"));
+
+        mockMvc.perform(get("/reservations/in-use")).andExpect(status().isOk());
+        assertEquals(replica + 1, connections("replica"));
+    }
+
+    @Test
+    void bookingLookupsUseThePrimary() throws Exception {
+        Long customerId = customerService.create(customer("routing")).getId();
+        Long roomId = roomService.create(room("routing", RoomType.SINGLE, "90.00")).getId();
+        LocalDate checkin = LocalDate.now().plusDays(3);
+        String booking = "{\"customerId\":" + customerId + ",\"roomId\":" + roomId + ",\"checkin\":\"" + checkin
+                + "\",\"checkout\":\"" + checkin.plusDays(1) + "\",\"status\":\"SCHEDULED\"}";
+        replicaLagMonitor.check();
+        double replica = connections("replica");
+
+        // The key, customer and room are all looked up before anything is written in the request.
+        mockMvc.perform(post("/reservations")
+                        .header("Idempotency-Key", "routing-" + System.nanoTime())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(booking))
+                .andExpect(status().isCreated());
+
+        assertEquals(replica, connections("replica"));
+    }
+
+    private double connections(String route) {
+        return meterRegistry.counter("eclipsehotel.datasource.connections", "route", route).count();
+    }
+}
@@ -0,0 +1,73 @@
+package akross.eclipsehotel.config;
+
+import akross.eclipsehotel.dto.RoomDTO;
+import akross.eclipsehotel.model.RoomType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WireFormatTests {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final TypeReference<List<RoomDTO>> ROOMS = new TypeReference<>() {
+    };
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void roomsAreTheSameInEveryFormat() throws Exception {
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+        RoomDTO room = new RoomDTO(null, "wire-" + System.nanoTime(), RoomType.SUITE, new BigDecimal("310.50"));
+        mockMvc.perform(post("/rooms").contentType(MediaType.APPLICATION_CBOR).content(cbor.writeValueAsBytes(room)))
+                .andExpect(status().isCreated());
+
+        MockHttpServletResponse json = mockMvc.perform(get("/rooms")).andExpect(status().isOk()).andReturn().getResponse();
+        MockHttpServletResponse cborResponse = mockMvc.perform(get("/rooms").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        MockHttpServletResponse smileResponse = mockMvc.perform(get("/rooms").accept(SMILE))
+                .andExpect(status().isOk()).andReturn().getResponse();
+
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(json.getContentType())));
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cborResponse.getContentType());
+        assertEquals(SMILE.toString(), smileResponse.getContentType());
+        assertEquals(HttpHeaders.ACCEPT, cborResponse.getHeader(HttpHeaders.VARY));
+
+        List<RoomDTO> fromJson = objectMapper.readValue(json.getContentAsByteArray(), ROOMS);
+        assertEquals(fromJson, cbor.readValue(cborResponse.getContentAsByteArray(), ROOMS));
+        assertEquals(fromJson, smileConverter.getObjectMapper().readValue(smileResponse.getContentAsByteArray(), ROOMS));
+        assertTrue(fromJson.stream().anyMatch(found -> found.number().equals(room.number())
+                && found.price().compareTo(room.price()) == 0));
+        assertTrue(cborResponse.getContentAsByteArray().length < json.getContentAsByteArray().length);
+    }
+}
@@ -0,0 +1,87 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.config.StatementCounter;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static akross.eclipsehotel.TestFixtures.customerWithEmail;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CustomerEmailTests {
+
+    private static final int THREADS = 8;
+
+    private static final int CUSTOMERS = 10;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void newEmailsAreCreatedWithoutAnExistsQuery() {
+        String prefix = "new-" + System.nanoTime() + "-";
+
+        statementCounter.start();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.create(customerWithEmail(prefix + i + "@eclipse.test"));
+        }
+        // One insert each, plus at most one sequence call since fewer IDs than a pooled block are drawn.
+        assertTrue(statementCounter.stop() <= CUSTOMERS + 1);
+    }
+
+    @Test
+    void duplicateEmailIsABusinessError() {
+        String email = "duplicate-" + System.nanoTime() + "@eclipse.test";
+        customerService.create(customerWithEmail(email));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> customerService.create(customerWithEmail(email)));
+        assertEquals("This email already exists.", e.getMessage());
+    }
+
+    @Test
+    void concurrentSignUpsWithTheSameEmailCreateOneCustomer() throws Exception {
+        String email = "concurrent-" + System.nanoTime() + "@eclipse.test";
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    customerService.create(customerWithEmail(email));
+                    created.incrementAndGet();
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS - 1, rejected.get());
+    }
+}
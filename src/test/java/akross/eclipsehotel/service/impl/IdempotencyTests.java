@@ -0,0 +1,140 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.exception.IdempotencyConflictException;
+import akross.eclipsehotel.model.IdempotencyRecord;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.repository.IdempotencyRecordRepository;
+import akross.eclipsehotel.repository.ReservationRepository;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.IdempotencyService;
+import akross.eclipsehotel.service.IdempotentReservation;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "eclipse-hotel.idempotency.persistent=true")
+class IdempotencyTests {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void retryReplaysTheStoredReservation() {
+        String key = "retry-" + System.nanoTime();
+        ReservationDTO request = newRequest();
+        AtomicInteger opened = new AtomicInteger();
+
+        IdempotentReservation first = idempotencyService.openReservation(key, request, () -> {
+            opened.incrementAndGet();
+            return open(request).get();
+        });
+        IdempotentReservation retry = idempotencyService.openReservation(key, request, open(request));
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.reservation().id(), retry.reservation().id());
+        assertEquals(1, opened.get());
+        assertEquals(first.reservation().id(), idempotencyRecordRepository.findById(key).orElseThrow().getReservationId());
+    }
+
+    @Test
+    void keyReusedForADifferentReservationIsAConflict() {
+        String key = "reused-" + System.nanoTime();
+        ReservationDTO request = newRequest();
+        idempotencyService.openReservation(key, request, open(request));
+
+        ReservationDTO other = new ReservationDTO(null, request.customerId(), request.roomId(),
+                request.checkin(), request.checkout().plusDays(1), request.status(), null);
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.openReservation(key, other, open(other)));
+    }
+
+    @Test
+    void keyClaimedByAnotherNodeRollsBackTheReservationAndReplaysTheirs() {
+        String key = "raced-" + System.nanoTime();
+        ReservationDTO request = newRequest();
+        TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+        otherNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicLong ours = new AtomicLong();
+
+        // The other node commits the key after our lookup missed it, while our reservation is still open.
+        IdempotentReservation result = idempotencyService.openReservation(key, request, () -> {
+            ReservationDTO reservation = open(request).get();
+            ours.set(reservation.id());
+            otherNode.executeWithoutResult(status -> idempotencyRecordRepository.save(recordOf(key, reservation)));
+            return reservation;
+        });
+
+        assertTrue(result.replayed());
+        assertEquals(-1L, result.reservation().id());
+        assertFalse(reservationRepository.existsById(ours.get()));
+    }
+
+    private Supplier<ReservationDTO> open(ReservationDTO request) {
+        return () -> {
+            var reservation = request.toModel();
+            reservation.setCustomer(customerService.findById(request.customerId()));
+            reservation.setRoom(roomService.findById(request.roomId()));
+            return new ReservationDTO(reservationService.openReservation(reservation));
+        };
+    }
+
+    private ReservationDTO newRequest() {
+        LocalDate checkin = LocalDate.now().plusDays(5);
+        return new ReservationDTO(null, customerService.create(customer("idempotency")).getId(),
+                roomService.create(room("idempotency", RoomType.SINGLE, "90.00")).getId(),
+                checkin, checkin.plusDays(2), ReservationStatus.SCHEDULED, null);
+    }
+
+    private static IdempotencyRecord recordOf(String key, ReservationDTO reservation) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setRequestFingerprint(IdempotencyServiceImpl.fingerprint(reservation));
+        record.setReservationId(-1L);
+        record.setCustomerId(reservation.customerId());
+        record.setRoomId(reservation.roomId());
+        record.setCheckin(reservation.checkin());
+        record.setCheckout(reservation.checkout());
+        record.setStatus(reservation.status());
+        record.setTotal(reservation.total());
+        record.setCreatedAt(Instant.now());
+        return record;
+    }
+}
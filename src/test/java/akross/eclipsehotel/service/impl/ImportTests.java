@@ -0,0 +1,152 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ImportRejectDTO;
+import akross.eclipsehotel.dto.ImportReportDTO;
+import akross.eclipsehotel.repository.CustomerRepository;
+import akross.eclipsehotel.repository.RoomRepository;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ImportFormat;
+import akross.eclipsehotel.service.ImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static akross.eclipsehotel.TestFixtures.customerWithEmail;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ImportTests {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void csvRoomsAreImported() {
+        String prefix = "csv-" + System.nanoTime() + "-";
+        ImportReportDTO report = importService.importRooms(input("""
+                number,type,price
+                %1$s1,SINGLE,80.00
+                %1$s2,DOUBLE,120.50
+                """.formatted(prefix)), ImportFormat.CSV);
+
+        assertEquals(2, report.read());
+        assertEquals(2, report.imported());
+        assertEquals(0, report.rejected());
+        assertTrue(report.completed());
+        assertTrue(roomRepository.existsByNumber(prefix + "2"));
+    }
+
+    @Test
+    void ndjsonCustomersAreImported() {
+        String prefix = "ndjson-" + System.nanoTime() + "-";
+        ImportReportDTO report = importService.importCustomers(input("""
+                {"name":"First","email":"%1$s1@eclipse.test","phone":"111","createdAt":"2024-01-02"}
+                {"name":"Second","email":"%1$s2@eclipse.test","phone":"222"}
+                """.formatted(prefix)), ImportFormat.NDJSON);
+
+        assertEquals(2, report.imported());
+        assertEquals(0, report.rejected());
+        assertTrue(customerRepository.existsByEmail(prefix + "1@eclipse.test"));
+    }
+
+    @Test
+    void malformedRecordsAreRejectedAndReadingGoesOn() {
+        String prefix = "malformed-" + System.nanoTime() + "-";
+        ImportReportDTO csv = importService.importRooms(input("""
+                number,type,price
+                %1$s1,SINGLE,80.00
+                %1$s2,SINGLE,80.00,extra
+                %1$s3,CASTLE,80.00
+                %1$s4,SINGLE,cheap
+                %1$s5,SINGLE,80.00
+                """.formatted(prefix)), ImportFormat.CSV);
+        ImportReportDTO ndjson = importService.importCustomers(input("""
+                {"name":"First","email":"%1$s1@eclipse.test","phone":"111"}
+                {"name":"Broken","email":
+                {"name":"Third","email":"%1$s3@eclipse.test","phone":"333"}
+                """.formatted(prefix)), ImportFormat.NDJSON);
+
+        assertEquals(5, csv.read());
+        assertEquals(2, csv.imported());
+        assertTrue(roomRepository.existsByNumber(prefix + "5"));
+        assertEquals(List.of(2L, 3L, 4L), csv.rejects().stream().map(ImportRejectDTO::record).toList());
+        assertTrue(csv.completed());
+        assertEquals(3, ndjson.read());
+        assertEquals(2, ndjson.imported());
+        assertEquals(2L, ndjson.rejects().get(0).record());
+    }
+
+    @Test
+    void duplicatesWithinTheFileAndAgainstTheDatabaseAreRejected() {
+        String prefix = "duplicate-" + System.nanoTime() + "-";
+        customerService.create(customerWithEmail(prefix + "existing@eclipse.test"));
+
+        ImportReportDTO report = importService.importCustomers(input("""
+                name,email,phone
+                New,%1$snew@eclipse.test,111
+                Again,%1$snew@eclipse.test,222
+                Existing,%1$sexisting@eclipse.test,333
+                """.formatted(prefix)), ImportFormat.CSV);
+
+        assertEquals(1, report.imported());
+        assertEquals(List.of(
+                new ImportRejectDTO(2, prefix + "new@eclipse.test", "Already exists."),
+                new ImportRejectDTO(3, prefix + "existing@eclipse.test", "Already exists.")
+        ), report.rejects());
+    }
+
+    @Test
+    void refusedBatchIsRetriedOneRecordAtATime() {
+        String prefix = "refused-" + System.nanoTime() + "-";
+        String taken = prefix + "2@eclipse.test";
+        // The customer signs up once the import has loaded the known emails, so only the unique constraint catches it.
+        InputStream input = new FilterInputStream(input("""
+                name,email,phone
+                First,%1$s1@eclipse.test,111
+                Second,%1$s2@eclipse.test,222
+                Third,%1$s3@eclipse.test,333
+                """.formatted(prefix))) {
+            private boolean signedUp;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (!signedUp) {
+                    signedUp = true;
+                    customerService.create(customerWithEmail(taken));
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        ImportReportDTO report = importService.importCustomers(input, ImportFormat.CSV);
+
+        assertEquals(3, report.read());
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(taken, report.rejects().get(0).key());
+        assertTrue(report.rejects().get(0).reason().startsWith("Refused by the database"));
+        assertTrue(customerRepository.existsByEmail(prefix + "1@eclipse.test"));
+        assertTrue(customerRepository.existsByEmail(prefix + "3@eclipse.test"));
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.config.PricingProperties;
+import akross.eclipsehotel.config.PricingProperties.LengthOfStayDiscount;
+import akross.eclipsehotel.config.PricingProperties.Season;
+import akross.eclipsehotel.model.RoomType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateCalendarTests {
+
+    private static final long NIGHTLY_CENTS = 10_000;
+
+    private static final int YEAR = LocalDate.now().getYear();
+
+    @Test
+    void seasonWrapsAroundTheNewYear() {
+        RateCalendar calendar = calendar(730, List.of(new Season("holidays", "12-20", "01-05", 50, null)), List.of());
+
+        assertEquals(10_000, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR, 12, 19)));
+        assertEquals(15_000, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR, 12, 20)));
+        assertEquals(15_000, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR, 12, 31)));
+        assertEquals(15_000, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR + 1, 1, 5)));
+        assertEquals(10_000, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR + 1, 1, 6)));
+    }
+
+    @Test
+    void overlappingSeasonsAddUpAndNeverGoBelowZero() {
+        RateCalendar calendar = calendar(730, List.of(
+                new Season("summer", "07-01", "08-31", 20, null),
+                new Season("festival", "08-01", "08-15", 10, Set.of(RoomType.DOUBLE)),
+                new Season("closed", "03-01", "03-31", -80, null),
+                new Season("renovation", "03-10", "03-20", -80, null)
+        ), List.of());
+        LocalDate festival = LocalDate.of(YEAR + 1, 8, 5);
+
+        assertEquals(13_000, night(calendar, RoomType.DOUBLE, festival));
+        assertEquals(12_000, night(calendar, RoomType.SINGLE, festival));
+        assertEquals(2_000, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR + 1, 3, 1)));
+        assertEquals(0, night(calendar, RoomType.SINGLE, LocalDate.of(YEAR + 1, 3, 15)));
+    }
+
+    @Test
+    void longestQualifyingStayDiscountApplies() {
+        RateCalendar calendar = calendar(730, List.of(), List.of(
+                new LengthOfStayDiscount(7, 10),
+                new LengthOfStayDiscount(14, 15)
+        ));
+        LocalDate checkin = LocalDate.now().plusDays(10);
+
+        assertEquals(60_000, calendar.totalCents(RoomType.SINGLE, NIGHTLY_CENTS, checkin, checkin.plusDays(6)));
+        assertEquals(63_000, calendar.totalCents(RoomType.SINGLE, NIGHTLY_CENTS, checkin, checkin.plusDays(7)));
+        assertEquals(119_000, calendar.totalCents(RoomType.SINGLE, NIGHTLY_CENTS, checkin, checkin.plusDays(14)));
+        assertEquals(0, calendar.totalCents(RoomType.SINGLE, NIGHTLY_CENTS, checkin, checkin));
+    }
+
+    @Test
+    void precomputedTotalsMatchTheNightByNightWalk() {
+        List<Season> seasons = List.of(
+                new Season("holidays", "12-20", "01-05", 50, null),
+                new Season("summer", "07-01", "08-31", 20, null),
+                new Season("festival", "08-01", "08-15", 10, Set.of(RoomType.DOUBLE)),
+                new Season("low", "11-01", "11-30", -15, Set.of(RoomType.SUITE))
+        );
+        List<LengthOfStayDiscount> discounts = List.of(new LengthOfStayDiscount(7, 10), new LengthOfStayDiscount(28, 20));
+        RateCalendar precomputed = calendar(730, seasons, discounts);
+        // A one-day calendar sends every stay after tomorrow through the night-by-night walk.
+        RateCalendar walked = calendar(1, seasons, discounts);
+
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate checkin = today.plusDays(2 + random.nextInt(600));
+            LocalDate checkout = checkin.plusDays(random.nextInt(RateCalendar.MAX_NIGHTS));
+            RoomType type = RoomType.values()[random.nextInt(RoomType.values().length)];
+            long nightlyCents = 5_000 + random.nextInt(50_000);
+            assertEquals(walked.totalCents(type, nightlyCents, checkin, checkout),
+                    precomputed.totalCents(type, nightlyCents, checkin, checkout),
+                    type + " from " + checkin + " to " + checkout);
+        }
+    }
+
+    private static long night(RateCalendar calendar, RoomType type, LocalDate date) {
+        return calendar.totalCents(type, NIGHTLY_CENTS, date, date.plusDays(1));
+    }
+
+    private static RateCalendar calendar(int calendarDays, List<Season> seasons, List<LengthOfStayDiscount> discounts) {
+        RateCalendar calendar = new RateCalendar(new PricingProperties(calendarDays, Map.of(), seasons, discounts));
+        calendar.rebuild();
+        return calendar;
+    }
+}
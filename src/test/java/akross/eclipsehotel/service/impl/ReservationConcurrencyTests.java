@@ -0,0 +1,253 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.repository.ReservationRepository;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationBatchResult;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.ReservationStatusService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.reservation;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 150;
+    private static final int ROOMS = 4;
+    private static final int RACES = 10;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ReservationStatusService reservationStatusService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void concurrentBookingsNeverDoubleBookARoom() throws Exception {
+        Customer savedCustomer = customerService.create(customer("stress"));
+
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(roomService.create(room("stress", RoomType.DOUBLE, "100.00")));
+        }
+
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    LocalDate checkin = firstDay.plusDays(random.nextInt(60));
+                    Reservation reservation = reservation(savedCustomer, rooms.get(random.nextInt(ROOMS)),
+                            checkin, checkin.plusDays(1 + random.nextInt(4)));
+                    try {
+                        reservationService.openReservation(reservation);
+                        booked.incrementAndGet();
+                    } catch (BusinessException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, booked.get() + rejected.get());
+        assertTrue(booked.get() > 0);
+
+        Set<Long> roomIds = rooms.stream().map(Room::getId).collect(Collectors.toSet());
+        Map<Long, List<Reservation>> byRoom = reservationRepository.findAll().stream()
+                .filter(reservation -> roomIds.contains(reservation.getRoom().getId()))
+                .filter(reservation -> RoomAvailabilityIndex.isOccupied(reservation.getStatus()))
+                .collect(Collectors.groupingBy(reservation -> reservation.getRoom().getId()));
+        assertEquals(booked.get(), byRoom.values().stream().mapToInt(List::size).sum());
+
+        byRoom.values().forEach(reservations -> {
+            reservations.sort(Comparator.comparing(Reservation::getCheckin));
+            for (int i = 1; i < reservations.size(); i++) {
+                Reservation previous = reservations.get(i - 1);
+                Reservation current = reservations.get(i);
+                assertTrue(!previous.getCheckout().isAfter(current.getCheckin()),
+                        "Reservations " + previous.getId() + " and " + current.getId() + " overlap");
+            }
+        });
+    }
+
+    @Test
+    void batchesSpanningManyRoomsReportEachItemInOrder() {
+        Customer savedCustomer = customerService.create(customer("batch"));
+
+        LocalDate checkin = LocalDate.now().plusDays(3);
+        List<Reservation> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            batch.add(reservation(savedCustomer, roomService.create(room("batch")), checkin, checkin.plusDays(2)));
+        }
+        batch.add(reservation(savedCustomer, batch.get(0).getRoom(), checkin.plusDays(1), checkin.plusDays(3)));
+        batch.add(null);
+
+        List<ReservationBatchResult> results = reservationService.openReservations(batch);
+
+        assertEquals(42, results.size());
+        for (int i = 0; i < 40; i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals(batch.get(i).getRoom().getId(), results.get(i).reservation().getRoom().getId());
+        }
+        assertFalse(results.get(40).isSuccess());
+        assertFalse(results.get(41).isSuccess());
+    }
+
+    @Test
+    void failedGroupsAreReportedAndTheRestOfTheBatchStays() {
+        Customer savedCustomer = customerService.create(customer("batch-failure"));
+
+        LocalDate checkin = LocalDate.now().plusDays(3);
+        List<Reservation> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(reservation(savedCustomer, roomService.create(room("batch-failure")), checkin, checkin.plusDays(2)));
+        }
+        // A year in this room costs more than the total column holds, so the second group's insert fails in the database.
+        Room palace = roomService.create(room("batch-failure-palace", RoomType.SINGLE, "99999999.99"));
+        batch.add(reservation(savedCustomer, palace, checkin, checkin.plusDays(RateCalendar.MAX_NIGHTS)));
+
+        List<ReservationBatchResult> results = reservationService.openReservations(batch);
+
+        assertEquals(21, results.size());
+        for (int i = 0; i < 16; i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertTrue(reservationRepository.existsById(results.get(i).reservation().getId()));
+        }
+        for (int i = 16; i < 21; i++) {
+            assertFalse(results.get(i).isSuccess());
+        }
+        assertFalse(reservationRepository.existsByRoomIdAndStatusInAndCheckoutAfterAndCheckinBefore(
+                batch.get(16).getRoom().getId(), RoomAvailabilityIndex.OCCUPIED_STATUSES, checkin, checkin.plusDays(2)));
+        // The rolled back items left the index too, so the rooms can be booked again.
+        assertTrue(reservationService.openReservations(batch.subList(16, 20)).stream().allMatch(ReservationBatchResult::isSuccess));
+    }
+
+    @Test
+    void batchWithNullItemIsABadRequest() throws Exception {
+        mockMvc.perform(post("/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reservationsThisInstanceNeverIndexedStillBlockTheRoom() {
+        Customer savedCustomer = customerService.create(customer("other-node"));
+        Room savedRoom = roomService.create(room("other-node"));
+        LocalDate checkin = LocalDate.now().plusDays(4);
+
+        // Written straight to the table, as another instance or a manual fix would, so the index never sees it.
+        reservationRepository.save(reservation(savedCustomer, savedRoom, checkin, checkin.plusDays(3)));
+
+        Reservation overlapping = reservation(savedCustomer, savedRoom, checkin.plusDays(1), checkin.plusDays(2));
+
+        assertThrows(BusinessException.class, () -> reservationService.openReservation(overlapping));
+        assertFalse(reservationService.openReservations(List.of(overlapping)).get(0).isSuccess());
+    }
+
+    @Test
+    void concurrentCancelsAndTransitionsKeepAConsistentHistory() throws Exception {
+        Customer savedCustomer = customerService.create(customer("cancel"));
+
+        // A stay that starts tomorrow opens SCHEDULED, so the transition for its check-in date and the
+        // cancellations race to move the same row; either may win, but the history must stay a chain.
+        LocalDate checkin = LocalDate.now().plusDays(1);
+        for (int race = 0; race < RACES; race++) {
+            Room savedRoom = roomService.create(room("cancel", RoomType.DOUBLE, "100.00"));
+            Reservation opened = reservationService.openReservation(reservation(savedCustomer, savedRoom, checkin, checkin.plusDays(2)));
+            assertEquals(ReservationStatus.SCHEDULED, opened.getStatus());
+            Long id = opened.getId();
+
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                start.await();
+                return reservationStatusService.transitionStatuses(checkin);
+            }));
+            for (int t = 1; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return reservationService.cancelReservation(id);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            executor.shutdown();
+
+            assertEquals(ReservationStatus.CANCELED, reservationRepository.findById(id).orElseThrow().getStatus());
+            List<ReservationEventDTO> events = reservationService.findEvents(id);
+            assertEquals(ReservationStatus.SCHEDULED, events.get(0).status());
+            assertEquals(ReservationStatus.CANCELED, events.get(events.size() - 1).status());
+            assertEquals(1, events.stream().filter(event -> event.status() == ReservationStatus.CANCELED).count());
+            assertTrue(events.size() <= 3, events::toString);
+            for (int i = 1; i < events.size(); i++) {
+                assertEquals(events.get(i - 1).status(), events.get(i).previousStatus());
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationEventDTO;
+import akross.eclipsehotel.exception.NotFoundException;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.model.ReservationEventType;
+import akross.eclipsehotel.model.ReservationStatus;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.repository.ReservationRepository;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.ReservationStatusService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.reservation;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReservationEventLogTests {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationStatusService reservationStatusService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OccupancyCounters occupancyCounters;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void everyStatusChangeIsAppendedInOrder() {
+        Customer customer = createCustomer();
+        Room room = createRoom();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Reservation checkedIn = reservationService.openReservation(reservation(customer, room, tomorrow, tomorrow.plusDays(1)));
+        Reservation canceled = reservationService.openReservation(reservation(customer, room, tomorrow.plusDays(5), tomorrow.plusDays(6)));
+
+        reservationService.cancelReservation(canceled.getId());
+        reservationStatusService.transitionStatuses(tomorrow);
+
+        List<ReservationEventDTO> checkedInEvents = reservationService.findEvents(checkedIn.getId());
+        assertEquals(List.of(ReservationEventType.OPENED, ReservationEventType.CHECKED_IN),
+                checkedInEvents.stream().map(ReservationEventDTO::type).toList());
+        assertNull(checkedInEvents.get(0).previousStatus());
+        assertEquals(ReservationStatus.SCHEDULED, checkedInEvents.get(1).previousStatus());
+        assertEquals(ReservationStatus.IN_USE, checkedInEvents.get(1).status());
+
+        List<ReservationEventDTO> canceledEvents = reservationService.findEvents(canceled.getId());
+        assertEquals(List.of(ReservationEventType.OPENED, ReservationEventType.CANCELED),
+                canceledEvents.stream().map(ReservationEventDTO::type).toList());
+        assertEquals(room.getId(), canceledEvents.get(1).roomId());
+        assertEquals(customer.getId(), canceledEvents.get(1).customerId());
+    }
+
+    @Test
+    void noShowsBecomeAbsentAndCheckedInStaysFinish() {
+        Customer customer = createCustomer();
+        Room room = createRoom();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Reservation noShow = reservationService.openReservation(reservation(customer, room, tomorrow, tomorrow.plusDays(1)));
+        Reservation stay = reservationService.openReservation(reservation(customer, room, tomorrow.plusDays(2), tomorrow.plusDays(3)));
+
+        // The job first runs on the stay's check-in, after the no-show's checkout has passed, then after the stay ends.
+        reservationStatusService.transitionStatuses(tomorrow.plusDays(2));
+        reservationStatusService.transitionStatuses(tomorrow.plusDays(4));
+
+        List<ReservationEventDTO> noShowEvents = reservationService.findEvents(noShow.getId());
+        assertEquals(List.of(ReservationEventType.OPENED, ReservationEventType.ABSENT),
+                noShowEvents.stream().map(ReservationEventDTO::type).toList());
+        assertEquals(ReservationStatus.SCHEDULED, noShowEvents.get(1).previousStatus());
+        assertEquals(ReservationStatus.ABSENCE, noShowEvents.get(1).status());
+        assertEquals(ReservationStatus.ABSENCE, reservationRepository.findById(noShow.getId()).orElseThrow().getStatus());
+
+        List<ReservationEventDTO> stayEvents = reservationService.findEvents(stay.getId());
+        assertEquals(List.of(ReservationEventType.OPENED, ReservationEventType.CHECKED_IN, ReservationEventType.FINISHED),
+                stayEvents.stream().map(ReservationEventDTO::type).toList());
+        assertEquals(ReservationStatus.FINISHED, reservationRepository.findById(stay.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void replayingTheLogRebuildsTheIncrementalCounters() {
+        Customer customer = createCustomer();
+        Room room = createRoom();
+        LocalDate today = LocalDate.now();
+        reservationService.openReservation(reservation(customer, room, today, today.plusDays(2)));
+        Reservation canceled = reservationService.openReservation(reservation(customer, room, today.plusDays(10), today.plusDays(12)));
+        reservationService.cancelReservation(canceled.getId());
+
+        long[] incremental = snapshot();
+        occupancyCounters.load();
+
+        assertEquals(Arrays.toString(incremental), Arrays.toString(snapshot()));
+        assertEquals(1, occupancyCounters.mostCanceledRooms(Integer.MAX_VALUE).stream()
+                .filter(entry -> entry.id().equals(room.getId()))
+                .findFirst().orElseThrow().count());
+    }
+
+    @Test
+    void reservationsCommittedDuringAReloadAreCountedOnce() throws Exception {
+        Customer customer = createCustomer();
+        Room room = createRoom();
+        LocalDate today = LocalDate.now();
+        long scheduled = occupancyCounters.count(ReservationStatus.SCHEDULED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Committed and applied while the replay runs, after it read the log.
+            occupancyCounters.load(() -> await(executor.submit(() -> reservationService.openReservation(
+                    reservation(customer, room, today.plusDays(20), today.plusDays(21))))));
+
+            // Committed before the replay reads the log, applied only after the swap.
+            CountDownLatch committed = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<?> late = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.countDown();
+                        await(release);
+                    }
+                });
+                reservationService.openReservation(reservation(customer, room, today.plusDays(30), today.plusDays(31)));
+            }));
+            assertTrue(committed.await(10, TimeUnit.SECONDS));
+            occupancyCounters.load();
+            release.countDown();
+            late.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(scheduled + 2, occupancyCounters.count(ReservationStatus.SCHEDULED));
+        long[] incremental = snapshot();
+        occupancyCounters.load();
+        assertEquals(Arrays.toString(incremental), Arrays.toString(snapshot()));
+    }
+
+    @Test
+    void unknownReservationHasNoHistory() {
+        assertThrows(NotFoundException.class, () -> reservationService.findEvents(Long.MAX_VALUE));
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long[] snapshot() {
+        return Arrays.stream(ReservationStatus.values())
+                .mapToLong(occupancyCounters::count)
+                .toArray();
+    }
+
+    private Customer createCustomer() {
+        return customerService.create(customer("events"));
+    }
+
+    private Room createRoom() {
+        return roomService.create(room("events"));
+    }
+}
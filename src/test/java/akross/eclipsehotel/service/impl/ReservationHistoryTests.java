@@ -0,0 +1,120 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.config.StatementCounter;
+import akross.eclipsehotel.dto.CustomerReservationDTO;
+import akross.eclipsehotel.dto.RoomReservationDTO;
+import akross.eclipsehotel.exception.NotFoundException;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Room;
+import akross.eclipsehotel.model.RoomType;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.reservation;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReservationHistoryTests {
+
+    private static final int ROOMS = 3;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void customerHistoryIsOneStatementWhateverItsLength() {
+        Customer shortHistory = createCustomer();
+        Customer longHistory = createCustomer();
+        List<Room> rooms = createRooms();
+        book(shortHistory, createRooms(), 2);
+        book(longHistory, rooms, 40);
+
+        statementCounter.start();
+        List<CustomerReservationDTO> shortPage = customerService.findReservations(shortHistory.getId(), null, 1000);
+        assertEquals(1, statementCounter.stop());
+
+        statementCounter.start();
+        List<CustomerReservationDTO> longPage = customerService.findReservations(longHistory.getId(), null, 1000);
+        assertEquals(1, statementCounter.stop());
+
+        assertEquals(2 * ROOMS, shortPage.size());
+        assertEquals(40 * ROOMS, longPage.size());
+        assertEquals(rooms.get(0).getNumber(), longPage.get(0).roomNumber());
+        assertEquals(RoomType.DOUBLE, longPage.get(0).roomType());
+    }
+
+    @Test
+    void roomHistoryIsOneStatementWhateverItsLength() {
+        Customer customer = createCustomer();
+        List<Room> rooms = createRooms();
+        book(customer, rooms, 25);
+
+        statementCounter.start();
+        List<RoomReservationDTO> history = roomService.findReservations(rooms.get(1).getId(), null, 1000);
+        assertEquals(1, statementCounter.stop());
+
+        assertEquals(25, history.size());
+        assertEquals(customer.getName(), history.get(0).customerName());
+    }
+
+    @Test
+    void historyPagesFollowTheLastId() {
+        Customer customer = createCustomer();
+        book(customer, createRooms(), 5);
+
+        List<CustomerReservationDTO> first = customerService.findReservations(customer.getId(), null, 10);
+        List<CustomerReservationDTO> second = customerService.findReservations(customer.getId(), first.get(9).id(), 10);
+
+        assertEquals(10, first.size());
+        assertEquals(5 * ROOMS - 10, second.size());
+        assertTrue(second.get(0).id() > first.get(9).id());
+    }
+
+    @Test
+    void unknownCustomerOrRoomIsNotFound() {
+        assertThrows(NotFoundException.class, () -> customerService.findReservations(Long.MAX_VALUE, null, null));
+        assertThrows(NotFoundException.class, () -> roomService.findReservations(Long.MAX_VALUE, null, null));
+    }
+
+    private Customer createCustomer() {
+        return customerService.create(customer("history"));
+    }
+
+    private List<Room> createRooms() {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(roomService.create(room("history", RoomType.DOUBLE, "100.00")));
+        }
+        return rooms;
+    }
+
+    private void book(Customer customer, List<Room> rooms, int stays) {
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        for (int i = 0; i < stays; i++) {
+            for (Room room : rooms) {
+                reservationService.openReservation(reservation(customer, room, firstDay.plusDays(2L * i), firstDay.plusDays(2L * i + 1)));
+            }
+        }
+    }
+}
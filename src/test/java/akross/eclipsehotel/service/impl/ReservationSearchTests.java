@@ -0,0 +1,135 @@
+package akross.eclipsehotel.service.impl;
+
+import akross.eclipsehotel.dto.ReservationDTO;
+import akross.eclipsehotel.dto.ReservationPageDTO;
+import akross.eclipsehotel.exception.BusinessException;
+import akross.eclipsehotel.model.Customer;
+import akross.eclipsehotel.model.Reservation;
+import akross.eclipsehotel.repository.ReservationSearchCriteria;
+import akross.eclipsehotel.repository.ReservationSort;
+import akross.eclipsehotel.service.CustomerService;
+import akross.eclipsehotel.service.ReservationService;
+import akross.eclipsehotel.service.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static akross.eclipsehotel.TestFixtures.customer;
+import static akross.eclipsehotel.TestFixtures.reservation;
+import static akross.eclipsehotel.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ReservationSearchTests {
+
+    // Check-in and check-out offsets in days; several stays share a date so pages must break ties by ID.
+    private static final int[][] STAYS = {
+            {10, 12}, {10, 11}, {10, 12}, {12, 14}, {11, 12}, {11, 14}, {13, 14}
+    };
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    private Customer customer;
+
+    private List<ReservationDTO> booked;
+
+    @BeforeEach
+    void book() {
+        customer = customerService.create(customer("search"));
+
+        LocalDate today = LocalDate.now();
+        booked = new ArrayList<>();
+        for (int[] stay : STAYS) {
+            Reservation reservation = reservation(customer, roomService.create(room("search")),
+                    today.plusDays(stay[0]), today.plusDays(stay[1]));
+            booked.add(new ReservationDTO(reservationService.openReservation(reservation)));
+        }
+    }
+
+    @Test
+    void pagesFollowEverySortAndDirection() {
+        for (ReservationSort sort : ReservationSort.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                List<Long> expected = booked.stream()
+                        .sorted(order(sort, direction))
+                        .map(ReservationDTO::id)
+                        .toList();
+                for (int limit = 1; limit <= STAYS.length + 1; limit++) {
+                    assertEquals(expected, readAllPages(sort, direction, limit), sort + " " + direction + " by " + limit);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        ReservationPageDTO full = reservationService.searchReservations(criteria(ReservationSort.CHECKIN, Sort.Direction.ASC), null, STAYS.length);
+        assertEquals(STAYS.length, full.reservations().size());
+        assertNull(full.next());
+
+        ReservationPageDTO first = reservationService.searchReservations(criteria(ReservationSort.CHECKIN, Sort.Direction.ASC), null, STAYS.length - 1);
+        assertNotNull(first.next());
+        ReservationPageDTO last = reservationService.searchReservations(criteria(ReservationSort.CHECKIN, Sort.Direction.ASC), first.next(), STAYS.length - 1);
+        assertEquals(1, last.reservations().size());
+        assertNull(last.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "abc", "2030-01-01", "_5", "2030-13-01_5", "2030-01-01_x", "2030-01-01-5"})
+    void malformedDateCursorsAreRejected(String cursor) {
+        assertThrows(BusinessException.class, () -> reservationService.searchReservations(
+                criteria(ReservationSort.CHECKOUT, Sort.Direction.DESC), cursor, 10));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "abc", "2030-01-01_5", "5.0"})
+    void malformedIdCursorsAreRejected(String cursor) {
+        assertThrows(BusinessException.class, () -> reservationService.searchReservations(
+                criteria(ReservationSort.ID, Sort.Direction.ASC), cursor, 10));
+    }
+
+    private List<Long> readAllPages(ReservationSort sort, Sort.Direction direction, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReservationPageDTO page = reservationService.searchReservations(criteria(sort, direction), cursor, limit);
+            page.reservations().forEach(reservation -> ids.add(reservation.id()));
+            cursor = page.next();
+        } while (cursor != null && ids.size() <= STAYS.length);
+        return ids;
+    }
+
+    private ReservationSearchCriteria criteria(ReservationSort sort, Sort.Direction direction) {
+        return new ReservationSearchCriteria(customer.getId(), null, null, null, null, null, null, null, sort, direction);
+    }
+
+    private static Comparator<ReservationDTO> order(ReservationSort sort, Sort.Direction direction) {
+        Function<ReservationDTO, LocalDate> date = switch (sort) {
+            case ID -> reservation -> LocalDate.MIN;
+            case CHECKIN -> ReservationDTO::checkin;
+            case CHECKOUT -> ReservationDTO::checkout;
+        };
+        Comparator<ReservationDTO> ascending = Comparator.comparing(date).thenComparing(ReservationDTO::id);
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+}